@@ -0,0 +1,374 @@
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ArcadeHost.java
+ * Runs several independent matches in one process, like a row of cabinets.
+ *
+ * Every match is its own EnhancedPongGame with its own state, keys and
+ * output surface. Matches are spread over one simulation thread per core.
+ * Each thread ticks its matches on a fixed 16 ms schedule, staggered so two
+ * matches on the same thread never share a deadline, and renders each match
+ * into the match's surface (a TripleBuffer of images) right after its tick.
+ * The Swing thread only blits finished surfaces and queues key events
+ * (see InputRing), so it never holds up a tick. Fonts and
+ * glyph atlases are shared by every match (see GlyphAtlas).
+ *
+ * Matches follow the simulated clock (EnhancedPongGame(false)), which the
+ * schedule advances in step with real time. The lateness of each tick
+ * against its deadline is recorded as tick jitter in the match's metrics
+ * (F3), leaving out the first couple of seconds of JIT warm-up.
+ *
+ * Matches with a player get a key set; the rest are AI against AI and run
+ * until the host stops.
+ *
+ * Usage: java ArcadeHost [matches] [--players n] [--windows] [--headless seconds] [--telemetry dir] [--seed n]
+ *   --headless : run that long without a window, AI against AI in every
+ *                match, then print the jitter report
+ *   --seed     : match i plays from seed n + i, so runs can be replayed (see GameRandom)
+ *   --telemetry: one event log per match, dir/match-N.tlm (see Telemetry)
+ *   --windows  : one window per match (each uses W/S, P, R, Space)
+ *   default    : all matches tiled in one window, players 1-4 on
+ *                W/S, Up/Down, I/K and Numpad 8/5
+ */
+public class ArcadeHost {
+    // Sleep until this close to a deadline, then spin: parkNanos alone can oversleep by ~0.1 ms
+    static final long SPIN_NANOS = 200_000;
+    // Ticks per match left out of the jitter figures while the JIT compiles the tick and paint paths
+    static final int WARMUP_TICKS = 120;
+    static final int MAX_TILED_WIDTH = 1800;
+    static final int MAX_TILED_HEIGHT = 1000;
+
+    /** Physical keys for one player, translated to the default W/S/P/R/Space bindings. */
+    static class KeySet {
+        final int up, down, ability, pause, restart;
+        final String hint;
+
+        KeySet(int up, int down, int ability, int pause, int restart) {
+            this.up = up;
+            this.down = down;
+            this.ability = ability;
+            this.pause = pause;
+            this.restart = restart;
+            hint = KeyEvent.getKeyText(up) + "/" + KeyEvent.getKeyText(down) + ": Move  |  "
+                    + KeyEvent.getKeyText(pause) + ": Pause  |  " + KeyEvent.getKeyText(restart) + ": Restart  |  "
+                    + KeyEvent.getKeyText(ability) + ": Ability";
+        }
+
+        /** Returns the default binding for a physical key, or 0 if the key isn't in this set. */
+        int translate(int keyCode) {
+            if (keyCode == up) return KeyEvent.VK_W;
+            if (keyCode == down) return KeyEvent.VK_S;
+            if (keyCode == ability) return KeyEvent.VK_SPACE;
+            if (keyCode == pause) return KeyEvent.VK_P;
+            if (keyCode == restart) return KeyEvent.VK_R;
+            return 0;
+        }
+    }
+
+    static final KeySet DEFAULT_KEYS = new KeySet(KeyEvent.VK_W, KeyEvent.VK_S, KeyEvent.VK_SPACE, KeyEvent.VK_P, KeyEvent.VK_R);
+
+    // Players sharing one keyboard in the tiled window
+    static final KeySet[] SHARED_KEYS = {
+        DEFAULT_KEYS,
+        new KeySet(KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_ENTER, KeyEvent.VK_END, KeyEvent.VK_HOME),
+        new KeySet(KeyEvent.VK_I, KeyEvent.VK_K, KeyEvent.VK_L, KeyEvent.VK_O, KeyEvent.VK_U),
+        new KeySet(KeyEvent.VK_NUMPAD8, KeyEvent.VK_NUMPAD5, KeyEvent.VK_NUMPAD0, KeyEvent.VK_NUMPAD9, KeyEvent.VK_NUMPAD7),
+    };
+
+    static class Match {
+        final int index;
+        final EnhancedPongGame game;
+        final KeySet keys; // null = AI on both sides
+        final int width, height;
+        final TripleBuffer<BufferedImage> surface; // frames from the simulation thread to the Swing thread
+        final double scale;
+        long deadline;
+        int ticks = 0;
+
+        Match(int index, KeySet keys, double scale, long seed) {
+            this.index = index;
+            game = new EnhancedPongGame(false, seed);
+            this.keys = keys;
+            this.scale = scale;
+            width = (int) Math.round(EnhancedPongGame.WIDTH * scale);
+            height = (int) Math.round(EnhancedPongGame.HEIGHT * scale);
+            surface = new TripleBuffer<>(() -> new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+            if (keys == null) {
+                game.setPlayerController(PaddleControllers.NORMAL);
+                game.controlsHint = "Demo - AI vs AI";
+                game.startGame();
+            } else {
+                game.controlsHint = keys.hint;
+            }
+        }
+
+        /** Simulation thread: one tick, then the frame for it. */
+        void tick() {
+            game.step();
+            long paintStart = System.nanoTime();
+            Graphics2D g2 = surface.back().createGraphics();
+            g2.scale(scale, scale);
+            game.render(g2);
+            g2.dispose();
+            game.quality.recordFrame(System.nanoTime() - paintStart);
+            surface.publish();
+        }
+
+        /** Swing thread: queues the key for the match's next tick. */
+        void key(int keyCode, boolean pressed) {
+            int mapped = keyCode == KeyEvent.VK_F3 ? keyCode : keys == null ? 0 : keys.translate(keyCode);
+            if (mapped != 0) game.postKey(mapped, pressed);
+        }
+    }
+
+    /** Ticks a fixed share of the matches on one thread. */
+    static class Worker implements Runnable {
+        final List<Match> matches = new ArrayList<>();
+        final long period;
+        volatile boolean running = true;
+
+        Worker(long period) {
+            this.period = period;
+        }
+
+        @Override
+        public void run() {
+            // Spread this thread's deadlines evenly over one period
+            long start = System.nanoTime() + period;
+            for (int i = 0; i < matches.size(); i++) {
+                matches.get(i).deadline = start + period * i / matches.size();
+            }
+            while (running) {
+                Match next = matches.get(0);
+                for (Match m : matches) {
+                    if (m.deadline < next.deadline) next = m;
+                }
+                long wait = next.deadline - System.nanoTime();
+                if (wait > SPIN_NANOS) {
+                    LockSupport.parkNanos(wait - SPIN_NANOS);
+                }
+                while (System.nanoTime() < next.deadline) {
+                    // spin out the last stretch
+                }
+                long late = System.nanoTime() - next.deadline;
+                if (++next.ticks > WARMUP_TICKS) next.game.metrics.recordTickJitter(late);
+                next.tick();
+                // Fixed rate, but a match that fell a whole period behind drops the missed ticks
+                next.deadline += period;
+                long now = System.nanoTime();
+                if (now - next.deadline > period) next.deadline = now;
+            }
+        }
+    }
+
+    /** Blits the latest surface of each match in a grid. */
+    static class Board extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        final List<Match> matches;
+        final int cols;
+
+        Board(List<Match> matches, int cols) {
+            this.matches = matches;
+            this.cols = cols;
+            Match first = matches.get(0);
+            int rows = (matches.size() + cols - 1) / cols;
+            setPreferredSize(new Dimension(cols * first.width, rows * first.height));
+            setBackground(Color.BLACK);
+            setFocusable(true);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            for (int i = 0; i < matches.size(); i++) {
+                Match m = matches.get(i);
+                g.drawImage(m.surface.front(), (i % cols) * m.width, (i / cols) * m.height, null);
+            }
+            if (matches.size() > 1) {
+                g.setColor(Color.DARK_GRAY);
+                Match m = matches.get(0);
+                for (int c = 1; c < cols; c++) g.drawLine(c * m.width, 0, c * m.width, getHeight());
+                for (int y = m.height; y < getHeight(); y += m.height) g.drawLine(0, y, getWidth(), y);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = 4;
+        int players = 1;
+        boolean windows = false;
+        double headlessSeconds = 0;
+        Path telemetryDir = null;
+        long seed = GameRandom.newSeed();
+        for (int i = 0; i < args.length; i++) {
+            if ("--players".equals(args[i]) && i + 1 < args.length) players = Integer.parseInt(args[++i]);
+            else if ("--windows".equals(args[i])) windows = true;
+            else if ("--headless".equals(args[i]) && i + 1 < args.length) headlessSeconds = Double.parseDouble(args[++i]);
+            else if ("--telemetry".equals(args[i]) && i + 1 < args.length) telemetryDir = Paths.get(args[++i]);
+            else if ("--seed".equals(args[i]) && i + 1 < args.length) seed = Long.parseLong(args[++i]);
+            else count = Integer.parseInt(args[i]);
+        }
+        count = Math.max(1, count);
+        if (!windows) players = Math.min(players, SHARED_KEYS.length);
+        // Nothing takes keys without a window, so a player match would never start
+        if (headlessSeconds > 0) players = 0;
+        players = Math.max(0, Math.min(players, count));
+
+        int cols = windows ? 1 : (int) Math.ceil(Math.sqrt(count));
+        int rows = (count + cols - 1) / cols;
+        double scale = windows ? 1 : Math.min(1.0, Math.min(
+                MAX_TILED_WIDTH / (double) (cols * EnhancedPongGame.WIDTH),
+                MAX_TILED_HEIGHT / (double) (rows * EnhancedPongGame.HEIGHT)));
+
+        final List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            KeySet keys = i >= players ? null : windows ? DEFAULT_KEYS : SHARED_KEYS[i];
+            matches.add(new Match(i, keys, scale, seed + i));
+        }
+        if (telemetryDir != null) {
+            Files.createDirectories(telemetryDir);
+            for (Match m : matches) {
+                m.game.telemetry = new Telemetry(telemetryDir.resolve("match-" + (m.index + 1) + ".tlm"));
+            }
+        }
+
+        int threads = Math.min(count, Runtime.getRuntime().availableProcessors());
+        long period = matches.get(0).game.DELAY * 1_000_000L;
+        final List<Worker> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Worker(period));
+        }
+        for (Match m : matches) {
+            workers.get(m.index % threads).matches.add(m);
+        }
+        final List<Thread> workerThreads = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(workers.get(t), "arcade-sim-" + t);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+            workerThreads.add(thread);
+        }
+        // However the process ends, stop ticking before the event logs are flushed
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(matches, workers, workerThreads)));
+
+        if (headlessSeconds > 0) {
+            Thread.sleep((long) (headlessSeconds * 1000));
+            stop(matches, workers, workerThreads);
+            report(matches, threads);
+            return;
+        }
+
+        final boolean separate = windows;
+        final int columns = cols;
+        SwingUtilities.invokeLater(() -> {
+            if (separate) {
+                final AtomicInteger open = new AtomicInteger(matches.size());
+                for (Match m : matches) {
+                    openWindow("Pong Arcade - Match " + (m.index + 1), new Board(Collections.singletonList(m), 1), matches, open);
+                }
+            } else {
+                openWindow("Pong Arcade - " + matches.size() + " matches", new Board(matches, columns), matches, null);
+            }
+        });
+    }
+
+    private static void openWindow(String title, final Board board, final List<Match> all, final AtomicInteger open) {
+        JFrame frame = new JFrame(title);
+        frame.setDefaultCloseOperation(open == null ? JFrame.EXIT_ON_CLOSE : JFrame.DISPOSE_ON_CLOSE);
+        frame.setResizable(false);
+        frame.add(board);
+        frame.pack();
+        if (open == null) frame.setLocationRelativeTo(null);
+        else frame.setLocationByPlatform(true);
+
+        // Keys go to the matches shown in this window; F3 toggles every match's overlay
+        board.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                for (Match m : board.matches) m.key(e.getKeyCode(), true);
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                for (Match m : board.matches) m.key(e.getKeyCode(), false);
+            }
+        });
+        if (open != null) {
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    if (open.decrementAndGet() == 0) {
+                        report(all, -1);
+                        System.exit(0);
+                    }
+                }
+            });
+        }
+        new Timer(all.get(0).game.DELAY, e -> board.repaint()).start();
+        frame.setVisible(true);
+    }
+
+    static synchronized void stop(List<Match> matches, List<Worker> workers, List<Thread> threads) {
+        for (Worker w : workers) w.running = false;
+        try {
+            for (Thread t : threads) t.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (Match m : matches) {
+            m.game.shutdownControllers();
+            Telemetry log = m.game.telemetry;
+            if (log == null) continue;
+            try {
+                log.close();
+            } catch (IOException ex) {
+                System.err.println("Telemetry for match " + (m.index + 1) + " incomplete: " + ex.getMessage());
+            }
+        }
+    }
+
+    static void report(List<Match> matches, int threads) {
+        if (threads > 0) {
+            System.out.printf("%d matches on %d simulation threads, seed %d%n",
+                    matches.size(), threads, matches.get(0).game.random.seed);
+        }
+        long worst = 0;
+        for (Match m : matches) {
+            GameMetrics metrics = m.game.metrics;
+            long ticks = Math.max(1, metrics.scheduledTicks.get());
+            worst = Math.max(worst, metrics.tickJitterMaxNanos.get());
+            System.out.printf("match %2d: %6d ticks, jitter avg %.3f ms, max %.3f ms, score %d-%d",
+                    m.index + 1, metrics.scheduledTicks.get(), metrics.tickJitterTotalNanos.get() / 1e6 / ticks,
+                    metrics.tickJitterMaxNanos.get() / 1e6, m.game.playerScore, m.game.aiScore);
+            Telemetry log = m.game.telemetry;
+            if (log != null) {
+                System.out.printf(", %d events (%d dropped)", log.getRecorded(), log.getDropped());
+            }
+            System.out.println();
+        }
+        System.out.printf("worst tick jitter: %.3f ms%n", worst / 1e6);
+    }
+}
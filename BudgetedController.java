@@ -0,0 +1,105 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * BudgetedController.java
+ * Runs a PaddleController under a per-tick time budget.
+ *
+ * The built-in personalities are trusted and always decide inline on the
+ * tick thread. Any other bot (ServiceLoader, --ai) runs each decision on a
+ * dedicated daemon thread and the tick waits at most
+ * budgetNanos for it. A bot that overruns (or throws) keeps its paddle at the
+ * last decision and the overrun is counted in GameMetrics. While a slow
+ * decision is still in flight no new one is started, and its result is
+ * discarded as stale once it finally arrives.
+ *
+ * The thread is started for the first third-party decision and stopped
+ * once a built-in takes over again, or by shutdown().
+ */
+class BudgetedController {
+    private volatile PaddleController controller;
+    private final long budgetNanos;
+    private final GameMetrics metrics;
+    private ExecutorService executor = null;
+    private Future<Integer> inFlight = null;
+    private boolean hasDecision = false;
+    private int lastDecision;
+
+    BudgetedController(PaddleController controller, long budgetNanos, GameMetrics metrics) {
+        this.controller = controller;
+        this.budgetNanos = budgetNanos;
+        this.metrics = metrics;
+    }
+
+    PaddleController getController() {
+        return controller;
+    }
+
+    void setController(PaddleController controller) {
+        this.controller = controller;
+    }
+
+    /** Returns the paddle Y to use this tick. */
+    int decide(PaddleView view) {
+        if (!hasDecision) {
+            lastDecision = view.paddleY;
+            hasDecision = true;
+        }
+
+        final PaddleController c = controller;
+        if (PaddleControllers.isBuiltIn(c)) {
+            if (executor != null) shutdown();
+            long start = System.nanoTime();
+            try {
+                lastDecision = c.decide(view);
+            } catch (RuntimeException ex) {
+                metrics.recordError();
+            }
+            metrics.recordDecision(System.nanoTime() - start);
+            return lastDecision;
+        }
+
+        if (inFlight != null) {
+            if (!inFlight.isDone()) {
+                // Still busy with an old tick: don't pile up work behind it
+                metrics.recordOverrun();
+                return lastDecision;
+            }
+            inFlight = null;
+        }
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "paddle-controller");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        final PaddleView snapshot = view.copy();
+        long start = System.nanoTime();
+        Future<Integer> f = executor.submit(() -> c.decide(snapshot));
+        try {
+            lastDecision = f.get(budgetNanos, TimeUnit.NANOSECONDS);
+            metrics.recordDecision(System.nanoTime() - start);
+        } catch (TimeoutException ex) {
+            inFlight = f;
+            metrics.recordOverrun();
+        } catch (ExecutionException ex) {
+            metrics.recordError();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return lastDecision;
+    }
+
+    /** Stops the decision thread, if any. Call from the tick thread, or once ticking has stopped. */
+    void shutdown() {
+        if (executor != null) executor.shutdownNow();
+        executor = null;
+        inFlight = null;
+    }
+}
@@ -1,9 +1,11 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 /**
  * EnhancedPongGame.java
  * Advanced Pong with visual effects, sound, multiple power-ups, and improved AI.
@@ -23,14 +25,48 @@ import java.util.List;
  *  - Improved AI with personality
  *  - Trail effects
  */
-public class EnhancedPongGame extends JPanel implements ActionListener, KeyListener {
+public class EnhancedPongGame extends JPanel implements KeyListener {
     // Window
     static final int WIDTH = 900;
     static final int HEIGHT = 600;
 
-    // Game loop timer
-    Timer timer;
+    // Glyph atlases are rasterized once when the class loads, before the first frame
+    static final Font SCORE_FONT = new Font("Consolas", Font.BOLD, 48);
+    static final Font POWER_FONT = new Font("Arial", Font.BOLD, 12);
+    static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 12);
+    static final Font HUD_FONT = new Font("SansSerif", Font.PLAIN, 12);
+    static final Font PROMPT_FONT = new Font("Arial", Font.BOLD, 36);
+    static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 48);
+    static final GlyphAtlas SCORE_TEXT = GlyphAtlas.get(SCORE_FONT);
+    static final GlyphAtlas POWER_TEXT = GlyphAtlas.get(POWER_FONT);
+    static final GlyphAtlas LABEL_TEXT = GlyphAtlas.get(LABEL_FONT);
+    static final GlyphAtlas HUD_TEXT = GlyphAtlas.get(HUD_FONT);
+    static final GlyphAtlas PROMPT_TEXT = GlyphAtlas.get(PROMPT_FONT);
+    static final GlyphAtlas MESSAGE_TEXT = GlyphAtlas.get(MESSAGE_FONT);
+    static final Color PLAYER_SCORE_GLOW = new Color(100, 255, 100, 150);
+    static final Color AI_SCORE_GLOW = new Color(255, 100, 100, 150);
+
+    // Game loop: interactive games tick on their own thread, never on the Swing thread
     final int DELAY = 16; // ~60 FPS
+    private Thread simulation = null;
+    private volatile boolean simulating = false;
+
+    // Key events from the Swing thread, applied by the simulation at the start of a tick
+    private final InputRing input = new InputRing(256);
+
+    // What paintComponent draws: filled by the simulation each tick, read by the Swing thread without locks
+    private final TripleBuffer<RenderState> frames = new TripleBuffer<>(RenderState::new);
+    private RenderState offscreen = null; // render(Graphics2D) from the simulating thread
+
+    // Shape backend, see Renderer; F4 switches at runtime
+    volatile boolean softwareRaster = false;
+    int rasterBands = 1;
+    private Java2DRenderer java2d = null;
+    private SoftwareRenderer software = null;
+
+    // Interactive games follow the wall clock; simulated ones advance DELAY ms per step()
+    private final boolean interactive;
+    private long simulatedTime = 0;
 
     // Paddles
     final int PADDLE_WIDTH = 12;
@@ -40,7 +76,10 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     int aiY = HEIGHT/2 - aiPaddleHeight/2;
     final int PADDLE_X = 30;
     final int AI_X = WIDTH - 30 - PADDLE_WIDTH;
-    int playerSpeed = 6;
+
+    // Tuning values; replaced between ticks when the rules file changes
+    GameRules rules = GameRules.DEFAULTS;
+    volatile RulesWatcher rulesWatcher = null;
 
     // Ball
     int ballX = WIDTH/2;
@@ -57,7 +96,20 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     // AI difficulty parameters
     double aiMaxSpeed = 4.0;
     double aiReaction = 0.12;
-    private String aiPersonality = "NORMAL"; // NORMAL, AGGRESSIVE, DEFENSIVE
+
+    // AI strategy: a built-in personality picked from the score, or a pinned bot (--ai)
+    static final long AI_DECISION_BUDGET_NANOS = 2_000_000;
+    final GameMetrics metrics = new GameMetrics();
+    private final BudgetedController aiBrain;
+    private final PaddleView aiView = new PaddleView();
+    private volatile boolean aiPinned = false;
+
+    // Optional controller for the player paddle, used by simulated matches instead of W/S
+    private BudgetedController playerBrain = null;
+    private final PaddleView playerView = new PaddleView();
+
+    // Scales effects down when painting can't keep up
+    final QualityGovernor quality = new QualityGovernor(metrics);
 
     // Input
     boolean upPressed = false;
@@ -66,14 +118,17 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     // Game state
     boolean paused = false;
     boolean running = true;
-    private boolean gameStarted = false;
+    private volatile boolean gameStarted = false;
+    private boolean showMetrics = false;
+    String controlsHint = "W/S: Move  |  P: Pause  |  R: Restart  |  SPACE: Ability";
 
     // Enhanced Power-ups
     enum PowerType { PADDLE_BIG, BALL_SLOW, MULTI_BALL, SPEED_BOOST, MAGNET, CONFUSE_AI }
-    class PowerUp {
+    static class PowerUp {
         int x, y, size = 20;
         PowerType type;
         boolean active = true;
+        long expiresAt = 0; // 0 = never
         float pulse = 0f;
         boolean growing = true;
         
@@ -93,9 +148,8 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
             }
         }
     }
-    PowerUp currentPower = null;
-    final int POWER_SPAWN_INTERVAL = 10 * 1000; // ms
-    long lastPowerSpawnTime = System.currentTimeMillis();
+    final PowerUpField powerUps = new PowerUpField(WIDTH, HEIGHT);
+    long lastPowerSpawnTime;
 
     // Timers for effects
     long paddleBoostEndTime = 0;
@@ -131,10 +185,10 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
             this.x = x;
             this.y = y;
             this.color = color;
-            this.vx = (float) (Math.random() - 0.5) * 8;
-            this.vy = (float) (Math.random() - 0.5) * 8;
+            this.vx = (float) (random.effects.nextDouble() - 0.5) * 8;
+            this.vy = (float) (random.effects.nextDouble() - 0.5) * 8;
             this.life = 1.0f;
-            this.size = (float) (Math.random() * 4 + 2);
+            this.size = (float) (random.effects.nextDouble() * 4 + 2);
         }
         
         boolean update() {
@@ -180,30 +234,122 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     private List<Float> soundBars = new ArrayList<>();
     private long lastSoundTime = 0;
 
-    Random rnd = new Random();
+    // Seeded per match: gameplay, effects and paint draw from separate streams
+    final GameRandom random;
+
+    // Optional live feed for remote spectators
+    volatile SpectatorFeed spectatorFeed = null;
+
+    // Optional gameplay event log, and the rally it is tracking
+    volatile Telemetry telemetry = null;
+    private int rallyNumber = 0;
+    private int rallyHits = 0;
+    private long rallyStartTime = 0;
+    private double rallyMaxSpeed = 0;
 
     public EnhancedPongGame() {
+        this(true);
+    }
+
+    EnhancedPongGame(boolean interactive) {
+        this(interactive, GameRandom.newSeed());
+    }
+
+    /**
+     * A non-interactive game has no simulation thread and no wall clock: it
+     * only moves when step() is called, as fast as the caller wants. Given
+     * the same seed and controllers it plays out the same way every time.
+     */
+    EnhancedPongGame(boolean interactive, long seed) {
+        this.interactive = interactive;
+        random = new GameRandom(seed);
+        aiBrain = new BudgetedController(PaddleControllers.NORMAL, AI_DECISION_BUDGET_NANOS, metrics);
+        lastPowerSpawnTime = now();
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
         setBackground(Color.BLACK);
-        setFocusable(true);
-        addKeyListener(this);
-        timer = new Timer(DELAY, this);
-        timer.start();
+        if (interactive) {
+            setFocusable(true);
+            addKeyListener(this);
+        }
         resetBall(true);
         
         // Initialize sound bars
         for (int i = 0; i < 20; i++) {
             soundBars.add(0f);
         }
+
+        if (interactive) {
+            capture(frames.back());
+            frames.publish();
+            simulating = true;
+            simulation = new Thread(this::simulate, "pong-simulation");
+            simulation.setDaemon(true);
+            simulation.start();
+        }
+    }
+
+    long now() {
+        return interactive ? System.currentTimeMillis() : simulatedTime;
+    }
+
+    /** Advances a non-interactive game by one tick of simulated time. */
+    void step() {
+        simulatedTime += DELAY;
+        applyInput();
+        tick();
+    }
+
+    // Fixed-rate loop for interactive games; a tick that runs a whole period late drops the missed ones
+    private void simulate() {
+        long period = DELAY * 1_000_000L;
+        long next = System.nanoTime();
+        while (simulating) {
+            applyInput();
+            tick();
+            SpectatorFeed feed = spectatorFeed;
+            if (feed != null) {
+                feed.publish(this);
+            }
+            capture(frames.back());
+            frames.publish();
+            repaint();
+
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (-wait > period) {
+                next = System.nanoTime();
+            }
+        }
+        shutdownControllers();
+    }
+
+    /** Stops the simulation thread of an interactive game and waits for its last tick to finish. */
+    void stopSimulation() {
+        simulating = false;
+        if (simulation != null && simulation != Thread.currentThread()) {
+            LockSupport.unpark(simulation);
+            try {
+                simulation.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     void resetBall(boolean toPlayerServe) {
         ballX = WIDTH/2 - ballSize/2;
         ballY = HEIGHT/2 - ballSize/2;
         double speed = 5;
-        double angle = (rnd.nextDouble() * Math.PI/3) - Math.PI/6;
+        double angle = (random.gameplay.nextDouble() * Math.PI/3) - Math.PI/6;
         ballVX = speed * (toPlayerServe ? -1 : 1) * Math.cos(angle);
         ballVY = speed * Math.sin(angle);
+
+        rallyNumber++;
+        rallyHits = 0;
+        rallyStartTime = now();
+        rallyMaxSpeed = speed;
         
         // Clear trail
         ballTrail.clear();
@@ -212,29 +358,37 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     void restartGame() {
         playerScore = 0;
         aiScore = 0;
-        playerPaddleHeight = 100;
-        aiPaddleHeight = 100;
+        playerPaddleHeight = rules.paddleHeight;
+        aiPaddleHeight = rules.paddleHeight;
         playerY = HEIGHT/2 - playerPaddleHeight/2;
         aiY = HEIGHT/2 - aiPaddleHeight/2;
-        resetBall(rnd.nextBoolean());
+        resetBall(random.gameplay.nextBoolean());
         running = true;
         paused = false;
         gameStarted = false;
         playerAbilityCharge = 0;
         extraBalls.clear();
         particles.clear();
-        setAIPersonality("NORMAL");
+        powerUps.clear();
+        lastPowerSpawnTime = now();
+        setAIPersonality(PaddleControllers.NORMAL);
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
+    void tick() {
+        RulesWatcher watcher = rulesWatcher;
+        if (watcher != null) {
+            rules = watcher.current();
+        }
+        Telemetry log = telemetry;
+        if (log != null) {
+            log.endTick();
+        }
+
         if (!running || paused) { 
-            repaint(); 
             return; 
         }
 
         if (!gameStarted) {
-            repaint();
             return;
         }
 
@@ -244,31 +398,40 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
             if (screenShake < 0.1f) screenShake = 0;
         }
 
-        // Update power-up animation
-        if (currentPower != null) {
-            currentPower.update();
-        }
+        long now = now();
+
+        // Update power-up animation and expiry
+        powerUps.update(now);
 
         // Player movement
-        if (upPressed) playerY -= playerSpeed;
-        if (downPressed) playerY += playerSpeed;
+        if (playerBrain != null) {
+            updatePaddleView(playerView, true);
+            playerY = playerBrain.decide(playerView);
+        } else {
+            if (upPressed) playerY -= rules.playerSpeed;
+            if (downPressed) playerY += rules.playerSpeed;
+        }
         playerY = Math.max(0, Math.min(HEIGHT - playerPaddleHeight, playerY));
 
-        long now = System.currentTimeMillis();
-
-        // Spawn power-up occasionally
-        if (currentPower == null && now - lastPowerSpawnTime > POWER_SPAWN_INTERVAL) {
-            int px = rnd.nextInt(WIDTH/2) + WIDTH/4;
-            int py = rnd.nextInt(HEIGHT - 60) + 30;
+        // Spawn power-ups occasionally, up to the field limit
+        if (powerUps.size() < rules.maxPowerUps && now - lastPowerSpawnTime > rules.powerSpawnInterval) {
+            int px = random.gameplay.nextInt(WIDTH/2) + WIDTH/4;
+            int py = random.gameplay.nextInt(HEIGHT - 60) + 30;
             PowerType[] types = PowerType.values();
-            PowerType type = types[rnd.nextInt(types.length)];
-            currentPower = new PowerUp(px, py, type);
+            PowerType type = types[random.gameplay.nextInt(types.length)];
+            PowerUp power = new PowerUp(px, py, type);
+            if (rules.powerLifetime > 0) power.expiresAt = now + rules.powerLifetime;
+            powerUps.add(power);
             lastPowerSpawnTime = now;
+            if (log != null) log.powerSpawn(type.ordinal(), rallyNumber, now, px, py);
         }
 
         // Move ball with trail effect
-        ballTrail.add(0, new TrailParticle(ballX + ballSize/2, ballY + ballSize/2, Color.WHITE));
-        if (ballTrail.size() > 10) {
+        int trailLength = quality.level().trailLength;
+        if (trailLength > 0) {
+            ballTrail.add(0, new TrailParticle(ballX + ballSize/2, ballY + ballSize/2, Color.WHITE));
+        }
+        while (ballTrail.size() > trailLength) {
             ballTrail.remove(ballTrail.size() - 1);
         }
         
@@ -361,12 +524,14 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
 
         // Score check
         if (ballX + ballSize < 0) {
+            endRally(Telemetry.SIDE_AI);
             aiScore++;
             createParticles(ballX, ballY, Color.RED);
             screenShake = 5f;
             resetBall(false);
             setAIPersonalityBasedOnScore();
         } else if (ballX > WIDTH) {
+            endRally(Telemetry.SIDE_PLAYER);
             playerScore++;
             createParticles(ballX, ballY, Color.GREEN);
             screenShake = 5f;
@@ -380,23 +545,10 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
         // Move AI paddle (with confusion effect)
         if (now < confuseAIEndTime) {
             // AI moves randomly when confused
-            aiY += (rnd.nextInt(7) - 3);
+            aiY += (random.gameplay.nextInt(7) - 3);
         } else {
-            double targetY = ballY + ballSize/2 - aiPaddleHeight/2;
-            
-            // Adjust target based on AI personality
-            if ("AGGRESSIVE".equals(aiPersonality)) {
-                targetY += (ballVY > 0 ? 20 : -20);
-            } else if ("DEFENSIVE".equals(aiPersonality)) {
-                targetY += (ballVY > 0 ? -10 : 10);
-            }
-            
-            double dy = targetY - aiY;
-            aiY += (int)Math.round(dy * aiReaction);
-            
-            // Clamp ai movement speed
-            if (aiY - (int)Math.round(targetY) > aiMaxSpeed) aiY -= aiMaxSpeed;
-            if ((int)Math.round(targetY) - aiY > aiMaxSpeed) aiY += aiMaxSpeed;
+            updatePaddleView(aiView, false);
+            aiY = aiBrain.decide(aiView);
         }
         aiY = Math.max(0, Math.min(HEIGHT - aiPaddleHeight, aiY));
 
@@ -409,23 +561,24 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
             }
         }
 
-        // Power-up collection
-        if (currentPower != null && currentPower.active) {
-            Rectangle powerRect = new Rectangle(currentPower.x, currentPower.y, currentPower.size, currentPower.size);
-            Rectangle playerPaddleRect = new Rectangle(PADDLE_X, playerY, PADDLE_WIDTH, playerPaddleHeight);
-            Rectangle aiPaddleRect = new Rectangle(AI_X, aiY, PADDLE_WIDTH, aiPaddleHeight);
-            Rectangle ballRect = new Rectangle(ballX, ballY, ballSize, ballSize);
-
-            if (powerRect.intersects(playerPaddleRect) || powerRect.intersects(ballRect)) {
-                applyPowerToPlayer(currentPower.type);
-                currentPower.active = false;
-                currentPower = null;
-                createParticles(powerRect.x, powerRect.y, Color.YELLOW);
-            } else if (powerRect.intersects(aiPaddleRect)) {
-                applyPowerToAI(currentPower.type);
-                currentPower.active = false;
-                currentPower = null;
-                createParticles(powerRect.x, powerRect.y, Color.ORANGE);
+        // Power-up collection: any ball or the player paddle gives it to the player
+        if (powerUps.size() > 0) {
+            PowerUp taken;
+            while ((taken = powerUps.take(PADDLE_X, playerY, PADDLE_WIDTH, playerPaddleHeight)) != null) {
+                collectPowerUp(taken, true);
+            }
+            while ((taken = powerUps.take(ballX, ballY, ballSize, ballSize)) != null) {
+                collectPowerUp(taken, true);
+            }
+            // Indexed: MULTI_BALL pickups append to extraBalls while we walk it
+            for (int i = 0; i < extraBalls.size(); i++) {
+                ExtraBall eb = extraBalls.get(i);
+                while ((taken = powerUps.take(eb.x, eb.y, ballSize, ballSize)) != null) {
+                    collectPowerUp(taken, true);
+                }
+            }
+            while ((taken = powerUps.take(AI_X, aiY, PADDLE_WIDTH, aiPaddleHeight)) != null) {
+                collectPowerUp(taken, false);
             }
         }
 
@@ -442,8 +595,8 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
 
         // Effects expiry
         if (now > paddleBoostEndTime) {
-            playerPaddleHeight = 100;
-            aiPaddleHeight = 100;
+            playerPaddleHeight = rules.paddleHeight;
+            aiPaddleHeight = rules.paddleHeight;
         }
         if (now > ballSlowEndTime) {
             normalizeBallSpeed();
@@ -454,23 +607,129 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
         if (now > abilityEndTime) {
             abilityActive = false;
         }
+    }
+
+    void startGame() {
+        gameStarted = true;
+    }
+
+    void setSpectatorFeed(SpectatorFeed feed) {
+        this.spectatorFeed = feed;
+    }
+
+    /** Copies the state a remote spectator needs into f (see SpectatorEncoder). */
+    void captureSpectatorFrame(SpectatorEncoder.Frame f) {
+        f.ballX = SpectatorEncoder.coord(ballX);
+        f.ballY = SpectatorEncoder.coord(ballY);
+        f.playerY = SpectatorEncoder.coord(playerY);
+        f.aiY = SpectatorEncoder.coord(aiY);
+        f.playerPaddleHeight = playerPaddleHeight;
+        f.aiPaddleHeight = aiPaddleHeight;
+        f.playerScore = Math.min(0xFFFF, playerScore);
+        f.aiScore = Math.min(0xFFFF, aiScore);
+        f.abilityCharge = playerAbilityCharge;
+        f.personality = personalityIndex(aiBrain.getController());
+        f.flags = (running ? SpectatorEncoder.Frame.FLAG_RUNNING : 0)
+                | (paused ? SpectatorEncoder.Frame.FLAG_PAUSED : 0)
+                | (gameStarted ? SpectatorEncoder.Frame.FLAG_STARTED : 0)
+                | (abilityActive ? SpectatorEncoder.Frame.FLAG_ABILITY : 0);
+
+        f.setExtraCount(extraBalls.size());
+        for (int i = 0; i < f.extraCount; i++) {
+            ExtraBall eb = extraBalls.get(i);
+            f.extraX[i] = SpectatorEncoder.coord(eb.x);
+            f.extraY[i] = SpectatorEncoder.coord(eb.y);
+            f.extraRgb[i] = eb.color.getRGB() & 0xFFFFFF;
+        }
+
+        int powers = 0;
+        f.setPowerCount(powerUps.size());
+        for (int i = 0; i < powerUps.size() && powers < f.powerCount; i++) {
+            PowerUp p = powerUps.get(i);
+            if (!p.active) continue;
+            f.powerX[powers] = SpectatorEncoder.coord(p.x);
+            f.powerY[powers] = SpectatorEncoder.coord(p.y);
+            f.powerType[powers] = p.type.ordinal();
+            powers++;
+        }
+        f.powerCount = powers;
+
+        long now = now();
+        f.timers[0] = SpectatorEncoder.timer(paddleBoostEndTime, now);
+        f.timers[1] = SpectatorEncoder.timer(ballSlowEndTime, now);
+        f.timers[2] = SpectatorEncoder.timer(speedBoostEndTime, now);
+        f.timers[3] = SpectatorEncoder.timer(magnetEndTime, now);
+        f.timers[4] = SpectatorEncoder.timer(confuseAIEndTime, now);
+    }
+
+    void updatePaddleView(PaddleView v, boolean player) {
+        v.fieldWidth = WIDTH;
+        v.fieldHeight = HEIGHT;
+        v.paddleX = player ? PADDLE_X : AI_X;
+        v.paddleY = player ? playerY : aiY;
+        v.paddleHeight = player ? playerPaddleHeight : aiPaddleHeight;
+        v.leftSide = player;
+        v.opponentY = player ? aiY : playerY;
+        v.opponentHeight = player ? aiPaddleHeight : playerPaddleHeight;
+        v.ballX = ballX;
+        v.ballY = ballY;
+        v.ballSize = ballSize;
+        v.ballVX = ballVX;
+        v.ballVY = ballVY;
+        // The simulated player gets a fixed, fair difficulty
+        v.maxSpeed = player ? rules.playerSpeed : aiMaxSpeed;
+        v.reaction = player ? 0.15 : aiReaction;
+        v.ownScore = player ? playerScore : aiScore;
+        v.opponentScore = player ? aiScore : playerScore;
+    }
+
+    /** Lets controller play the player paddle (simulated matches). Null gives it back to the keyboard. */
+    void setPlayerController(PaddleController controller) {
+        if (playerBrain != null) playerBrain.shutdown();
+        playerBrain = controller == null ? null
+                : new BudgetedController(controller, AI_DECISION_BUDGET_NANOS, metrics);
+    }
 
-        repaint();
+    /** Stops the decision threads of third-party bots. Call from the thread that steps the game, or once it has stopped. */
+    void shutdownControllers() {
+        aiBrain.shutdown();
+        if (playerBrain != null) playerBrain.shutdown();
     }
 
     void setAIPersonalityBasedOnScore() {
+        if (aiPinned) return;
         int diff = playerScore - aiScore;
         if (diff >= 3) {
-            setAIPersonality("AGGRESSIVE");
+            setAIPersonality(PaddleControllers.AGGRESSIVE);
         } else if (diff <= -2) {
-            setAIPersonality("DEFENSIVE");
+            setAIPersonality(PaddleControllers.DEFENSIVE);
         } else {
-            setAIPersonality("NORMAL");
+            setAIPersonality(PaddleControllers.NORMAL);
         }
     }
 
-    void setAIPersonality(String personality) {
-        this.aiPersonality = personality;
+    void setAIPersonality(PaddleController controller) {
+        if (aiPinned) return;
+        PaddleController previous = aiBrain.getController();
+        aiBrain.setController(controller);
+        Telemetry log = telemetry;
+        if (log != null && controller != previous) {
+            log.aiSwitch(personalityIndex(controller), personalityIndex(previous), rallyNumber, now(),
+                    playerScore - aiScore);
+        }
+    }
+
+    // 0-2 for the built-in personalities, 3 for anything else (spectator feed and telemetry)
+    static int personalityIndex(PaddleController c) {
+        return c == PaddleControllers.NORMAL ? 0
+                : c == PaddleControllers.AGGRESSIVE ? 1
+                : c == PaddleControllers.DEFENSIVE ? 2 : 3;
+    }
+
+    /** Uses controller for the AI paddle for the rest of the session, ignoring the score. */
+    void pinAIController(PaddleController controller) {
+        aiBrain.setController(controller);
+        aiPinned = true;
     }
 
     void adaptAIDifficulty() {
@@ -489,17 +748,34 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
         double normalized = relativeIntersectY / (paddleH/2.0);
         double bounceAngle = normalized * Math.toRadians(60);
         double speed = Math.hypot(ballVX, ballVY);
+        double speedBefore = speed;
         
         // Speed boost effect
-        if (System.currentTimeMillis() < speedBoostEndTime) {
-            speed = Math.min(15, speed + 1.0);
+        if (now() < speedBoostEndTime) {
+            speed = Math.min(rules.boostedMaxBallSpeed, speed + rules.boostedHitSpeedup);
         } else {
-            speed = Math.min(12, speed + 0.2);
+            speed = Math.min(rules.maxBallSpeed, speed + rules.hitSpeedup);
         }
 
         double dir = wasPlayer ? 1 : -1;
         ballVX = dir * speed * Math.cos(bounceAngle);
         ballVY = speed * Math.sin(bounceAngle);
+
+        rallyHits++;
+        rallyMaxSpeed = Math.max(rallyMaxSpeed, speed);
+        Telemetry log = telemetry;
+        if (log != null) {
+            log.hit(wasPlayer ? Telemetry.SIDE_PLAYER : Telemetry.SIDE_AI, rallyHits, rallyNumber, now(),
+                    normalized, speed, speedBefore);
+        }
+    }
+
+    private void endRally(int winner) {
+        Telemetry log = telemetry;
+        if (log != null) {
+            long now = now();
+            log.rally(winner, rallyHits, rallyNumber, now, now - rallyStartTime, rallyMaxSpeed);
+        }
     }
 
     void reflectExtraBallFromPaddle(ExtraBall ball, int paddleY, int paddleH, boolean wasPlayer) {
@@ -507,72 +783,87 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
         double normalized = relativeIntersectY / (paddleH/2.0);
         double bounceAngle = normalized * Math.toRadians(60);
         double speed = Math.hypot(ball.vx, ball.vy);
-        speed = Math.min(12, speed + 0.2);
+        speed = Math.min(rules.maxBallSpeed, speed + rules.hitSpeedup);
 
         double dir = wasPlayer ? 1 : -1;
         ball.vx = dir * speed * Math.cos(bounceAngle);
         ball.vy = speed * Math.sin(bounceAngle);
     }
 
+    void collectPowerUp(PowerUp p, boolean toPlayer) {
+        Telemetry log = telemetry;
+        if (log != null) {
+            log.powerPickup(toPlayer ? Telemetry.SIDE_PLAYER : Telemetry.SIDE_AI, p.type.ordinal(), rallyNumber,
+                    now(), p.x, p.y);
+        }
+        if (toPlayer) {
+            applyPowerToPlayer(p.type);
+            createParticles(p.x, p.y, Color.YELLOW);
+        } else {
+            applyPowerToAI(p.type);
+            createParticles(p.x, p.y, Color.ORANGE);
+        }
+    }
+
     void applyPowerToPlayer(PowerType t) {
-        long now = System.currentTimeMillis();
+        long now = now();
         switch (t) {
             case PADDLE_BIG:
-                playerPaddleHeight = 160;
-                paddleBoostEndTime = now + 7_000;
+                playerPaddleHeight = rules.bigPaddleHeight;
+                paddleBoostEndTime = now + rules.paddleBoostDuration;
                 break;
             case BALL_SLOW:
                 slowBall();
-                ballSlowEndTime = now + 6_000;
+                ballSlowEndTime = now + rules.ballSlowDuration;
                 break;
             case MULTI_BALL:
-                spawnExtraBalls(2);
+                spawnExtraBalls(rules.multiBallCount);
                 break;
             case SPEED_BOOST:
-                speedBoostEndTime = now + 5_000;
+                speedBoostEndTime = now + rules.speedBoostDuration;
                 break;
             case MAGNET:
-                magnetEndTime = now + 8_000;
+                magnetEndTime = now + rules.magnetDuration;
                 break;
             case CONFUSE_AI:
-                confuseAIEndTime = now + 5_000;
+                confuseAIEndTime = now + rules.confuseAIDuration;
                 break;
         }
     }
 
     void applyPowerToAI(PowerType t) {
-        long now = System.currentTimeMillis();
+        long now = now();
         switch (t) {
             case PADDLE_BIG:
-                aiPaddleHeight = 160;
-                paddleBoostEndTime = now + 7_000;
+                aiPaddleHeight = rules.bigPaddleHeight;
+                paddleBoostEndTime = now + rules.paddleBoostDuration;
                 break;
             case BALL_SLOW:
                 slowBall();
-                ballSlowEndTime = now + 6_000;
+                ballSlowEndTime = now + rules.ballSlowDuration;
                 break;
             case MULTI_BALL:
-                spawnExtraBalls(2);
+                spawnExtraBalls(rules.multiBallCount);
                 break;
             case SPEED_BOOST:
-                speedBoostEndTime = now + 5_000;
+                speedBoostEndTime = now + rules.speedBoostDuration;
                 break;
             case CONFUSE_AI:
                 // AI using confuse doesn't make sense, so give it paddle boost instead
-                aiPaddleHeight = 160;
-                paddleBoostEndTime = now + 7_000;
+                aiPaddleHeight = rules.bigPaddleHeight;
+                paddleBoostEndTime = now + rules.paddleBoostDuration;
                 break;
         }
     }
 
     void spawnExtraBalls(int count) {
         for (int i = 0; i < count; i++) {
-            double angle = (rnd.nextDouble() * Math.PI/2) + Math.PI/4;
+            double angle = (random.gameplay.nextDouble() * Math.PI/2) + Math.PI/4;
             double speed = 6;
             Color color = new Color(
-                rnd.nextInt(200) + 55,
-                rnd.nextInt(200) + 55,
-                rnd.nextInt(200) + 55
+                random.effects.nextInt(200) + 55,
+                random.effects.nextInt(200) + 55,
+                random.effects.nextInt(200) + 55
             );
             
             ExtraBall eb = new ExtraBall(
@@ -589,14 +880,16 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
         if (playerAbilityCharge >= MAX_ABILITY_CHARGE && !abilityActive) {
             abilityActive = true;
             playerAbilityCharge = 0;
-            abilityEndTime = System.currentTimeMillis() + 3000;
+            abilityEndTime = now() + rules.abilityDuration;
             
             // Time slow ability
-            ballSlowEndTime = System.currentTimeMillis() + 3000;
+            ballSlowEndTime = now() + rules.abilityDuration;
             slowBall();
             
             // Visual effect
-            for (int i = 0; i < 50; i++) {
+            QualityGovernor.Level q = quality.level();
+            int count = Math.min(q.abilityParticles, q.maxParticles - particles.size());
+            for (int i = 0; i < count; i++) {
                 particles.add(new Particle(
                     PADDLE_X + PADDLE_WIDTH/2, 
                     playerY + playerPaddleHeight/2,
@@ -607,18 +900,19 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     }
 
     void slowBall() {
-        ballVX *= 0.55;
-        ballVY *= 0.55;
+        double f = rules.slowFactor;
+        ballVX *= f;
+        ballVY *= f;
         for (ExtraBall eb : extraBalls) {
-            eb.vx *= 0.55;
-            eb.vy *= 0.55;
+            eb.vx *= f;
+            eb.vy *= f;
         }
     }
 
     void normalizeBallSpeed() {
         double speed = Math.hypot(ballVX, ballVY);
-        double target = System.currentTimeMillis() < speedBoostEndTime ? 8.0 : 5.5;
-        target = Math.max(4.5, Math.min(12.0, target));
+        double target = now() < speedBoostEndTime ? rules.boostedBallSpeed : rules.ballSpeed;
+        target = Math.max(rules.minBallSpeed, Math.min(rules.maxBallSpeed, target));
         if (speed == 0) speed = 1;
         double scale = target / speed;
         ballVX *= scale;
@@ -634,20 +928,22 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     }
 
     void createParticles(float x, float y, Color color) {
-        for (int i = 0; i < 8; i++) {
+        QualityGovernor.Level q = quality.level();
+        int count = Math.min(q.particlesPerBurst, q.maxParticles - particles.size());
+        for (int i = 0; i < count; i++) {
             particles.add(new Particle(x, y, color));
         }
     }
 
     void visualizeSound() {
-        lastSoundTime = System.currentTimeMillis();
+        lastSoundTime = now();
         for (int i = 0; i < soundBars.size(); i++) {
-            soundBars.set(i, 10f + (float) Math.random() * 5f);
+            soundBars.set(i, 10f + (float) random.effects.nextDouble() * 5f);
         }
     }
 
     void updateSoundBars() {
-        long now = System.currentTimeMillis();
+        long now = now();
         float decay = (now - lastSoundTime > 100) ? 0.9f : 1.0f;
         
         for (int i = 0; i < soundBars.size(); i++) {
@@ -659,222 +955,345 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
 
     @Override
     protected void paintComponent(Graphics g) {
+        long paintStart = System.nanoTime();
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+        render((Graphics2D) g, frames.front());
+        quality.recordFrame(System.nanoTime() - paintStart);
+    }
+
+    /**
+     * Draws the current frame from the thread that steps the game. Used to
+     * render offscreen, see HeadlessRender and ArcadeHost.
+     */
+    void render(Graphics2D g2) {
+        if (offscreen == null) offscreen = new RenderState();
+        capture(offscreen);
+        render(g2, offscreen);
+    }
+
+    /** Copies what render() draws into s. Runs on the thread that steps the game. */
+    void capture(RenderState s) {
+        long now = now();
+        s.screenShake = screenShake;
+        s.ballX = ballX;
+        s.ballY = ballY;
+        s.ballSize = ballSize;
+        s.playerY = playerY;
+        s.aiY = aiY;
+        s.playerPaddleHeight = playerPaddleHeight;
+        s.aiPaddleHeight = aiPaddleHeight;
+        s.playerScore = playerScore;
+        s.aiScore = aiScore;
+        s.abilityCharge = playerAbilityCharge;
+        s.aiName = aiBrain.getController().name();
+        s.controlsHint = controlsHint;
+        s.gameStarted = gameStarted;
+        s.running = running;
+        s.paused = paused;
+        s.showMetrics = showMetrics;
+        s.paddleBoostLeft = Math.max(0, paddleBoostEndTime - now);
+        s.ballSlowLeft = Math.max(0, ballSlowEndTime - now);
+        s.speedBoostLeft = Math.max(0, speedBoostEndTime - now);
+        s.magnetLeft = Math.max(0, magnetEndTime - now);
+        s.confuseAILeft = Math.max(0, confuseAIEndTime - now);
+
+        s.setParticleCount(particles.size());
+        for (int i = 0; i < s.particleCount; i++) {
+            Particle p = particles.get(i);
+            s.particleX[i] = p.x;
+            s.particleY[i] = p.y;
+            s.particleSize[i] = p.size;
+            s.particleLife[i] = p.life;
+            s.particleColor[i] = p.color;
+        }
+
+        s.setTrailCount(ballTrail.size());
+        for (int i = 0; i < s.trailCount; i++) {
+            TrailParticle tp = ballTrail.get(i);
+            s.trailX[i] = tp.x;
+            s.trailY[i] = tp.y;
+            s.trailLife[i] = tp.life;
+        }
+
+        s.setExtraBallCount(extraBalls.size());
+        for (int i = 0; i < s.extraBallCount; i++) {
+            ExtraBall eb = extraBalls.get(i);
+            s.extraBallX[i] = eb.x;
+            s.extraBallY[i] = eb.y;
+            s.extraBallColor[i] = eb.color;
+        }
+
+        int active = 0;
+        for (int i = 0; i < powerUps.size(); i++) {
+            if (powerUps.get(i).active) active++;
+        }
+        s.setPowerCount(active);
+        for (int i = 0, j = 0; i < powerUps.size(); i++) {
+            PowerUp power = powerUps.get(i);
+            if (!power.active) continue;
+            s.powerX[j] = power.x;
+            s.powerY[j] = power.y;
+            s.powerSize[j] = power.size;
+            s.powerPulse[j] = power.pulse;
+            s.powerType[j] = power.type;
+            j++;
+        }
+
+        s.setSoundBarCount(soundBars.size());
+        for (int i = 0; i < s.soundBarCount; i++) {
+            s.soundBars[i] = soundBars.get(i);
+        }
+    }
+
+    /** Draws s. Reads nothing from the game that the simulation writes. */
+    void render(Graphics2D g2, RenderState s) {
+        QualityGovernor.Level q = quality.level();
         
         // Apply screen shake
-        if (screenShake > 0) {
+        if (s.screenShake > 0) {
+            // The shaken background leaves an edge uncovered; reused images would show an old frame there
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, WIDTH, HEIGHT);
             g2.translate(
-                (Math.random() - 0.5) * screenShake,
-                (Math.random() - 0.5) * screenShake
+                (random.paint.nextDouble() - 0.5) * s.screenShake,
+                (random.paint.nextDouble() - 0.5) * s.screenShake
             );
         }
 
+        // Shapes go through the selected backend, text is drawn over them with Java2D
+        Renderer r = renderer();
+        r.begin(g2, q.antialias);
+        drawShapes(r, s, q);
+        r.end();
+
         // Enable anti-aliasing
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        if (q.antialias) {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        }
+        drawText(g2, s, q);
+    }
+
+    // Backends belong to the thread that paints this game
+    private Renderer renderer() {
+        if (softwareRaster) {
+            if (software == null) software = new SoftwareRenderer(WIDTH, HEIGHT, rasterBands);
+            return software;
+        }
+        if (java2d == null) java2d = new Java2DRenderer();
+        return java2d;
+    }
+
+    void drawShapes(Renderer r, RenderState s, QualityGovernor.Level q) {
+        int ballSize = s.ballSize;
 
         // Draw gradient background
-        GradientPaint gradient = new GradientPaint(0, 0, backgroundColor1, 0, HEIGHT, backgroundColor2);
-        g2.setPaint(gradient);
-        g2.fillRect(0, 0, WIDTH, HEIGHT);
+        r.fillGradient(0, 0, WIDTH, HEIGHT, 0, backgroundColor1.getRGB(), backgroundColor2.getRGB());
 
         // Draw stars in background
-        g2.setColor(Color.WHITE);
-        for (int i = 0; i < 50; i++) {
-            int x = (int) (Math.random() * WIDTH);
-            int y = (int) (Math.random() * HEIGHT);
-            int size = (int) (Math.random() * 2) + 1;
-            g2.fillOval(x, y, size, size);
+        for (int i = 0; i < q.stars; i++) {
+            int x = random.paint.nextInt(WIDTH);
+            int y = random.paint.nextInt(HEIGHT);
+            int size = random.paint.nextInt(2) + 1;
+            r.fillCircle(x, y, size, 0xFFFFFFFF);
         }
 
         // Draw middle line with glow
-        g2.setColor(new Color(255, 255, 255, 100));
         for (int y = 0; y < HEIGHT; y += 30) {
-            g2.fillRect(WIDTH/2 - 1, y, 2, 15);
+            r.fillRect(WIDTH/2 - 1, y, 2, 15, argb(255, 255, 255, 100));
         }
 
         // Draw particles
-        for (Particle p : particles) {
-            g2.setColor(new Color(p.color.getRed(), p.color.getGreen(), p.color.getBlue(), (int)(p.life * 255)));
-            g2.fillOval((int)p.x, (int)p.y, (int)p.size, (int)p.size);
+        for (int i = 0; i < s.particleCount; i++) {
+            int rgb = s.particleColor[i].getRGB() & 0xFFFFFF;
+            r.fillCircle((int)s.particleX[i], (int)s.particleY[i], (int)s.particleSize[i],
+                    (int)(s.particleLife[i] * 255) << 24 | rgb);
         }
 
         // Draw ball trail
-        for (int i = 0; i < ballTrail.size(); i++) {
-            TrailParticle tp = ballTrail.get(i);
-            int alpha = (int)(tp.life * 255 * (1 - i/(float)ballTrail.size()));
+        for (int i = 0; i < s.trailCount; i++) {
+            int alpha = (int)(s.trailLife[i] * 255 * (1 - i/(float)s.trailCount));
             int size = ballSize - i;
             if (size < 2) size = 2;
-            g2.setColor(new Color(255, 255, 255, alpha));
-            g2.fillOval((int)tp.x - size/2, (int)tp.y - size/2, size, size);
+            r.fillCircle((int)s.trailX[i] - size/2, (int)s.trailY[i] - size/2, size, argb(255, 255, 255, alpha));
         }
 
         // Draw extra balls
-        for (ExtraBall eb : extraBalls) {
-            g2.setColor(eb.color);
-            g2.fillOval(eb.x, eb.y, ballSize, ballSize);
+        for (int b = 0; b < s.extraBallCount; b++) {
+            int color = s.extraBallColor[b].getRGB();
+            int x = s.extraBallX[b], y = s.extraBallY[b];
+            r.fillCircle(x, y, ballSize, color);
             
             // Glow effect
-            g2.setColor(new Color(eb.color.getRed(), eb.color.getGreen(), eb.color.getBlue(), 100));
-            for (int i = 1; i <= 2; i++) {
-                g2.fillOval(eb.x - i, eb.y - i, ballSize + i*2, ballSize + i*2);
+            if (q.glow) {
+                for (int i = 1; i <= 2; i++) {
+                    r.fillCircle(x - i, y - i, ballSize + i*2, 100 << 24 | (color & 0xFFFFFF));
+                }
             }
         }
 
         // Draw paddles with glow effects
         // Player paddle
-        GradientPaint playerGradient = new GradientPaint(
-            PADDLE_X, playerY, new Color(100, 255, 100),
-            PADDLE_X, playerY + playerPaddleHeight, new Color(0, 200, 0)
-        );
-        g2.setPaint(playerGradient);
-        g2.fillRoundRect(PADDLE_X, playerY, PADDLE_WIDTH, playerPaddleHeight, 10, 10);
+        r.fillGradient(PADDLE_X, s.playerY, PADDLE_WIDTH, s.playerPaddleHeight, 10,
+                argb(100, 255, 100, 255), argb(0, 200, 0, 255));
         
         // AI paddle
-        GradientPaint aiGradient = new GradientPaint(
-            AI_X, aiY, new Color(255, 100, 100),
-            AI_X, aiY + aiPaddleHeight, new Color(200, 0, 0)
-        );
-        g2.setPaint(aiGradient);
-        g2.fillRoundRect(AI_X, aiY, PADDLE_WIDTH, aiPaddleHeight, 10, 10);
+        r.fillGradient(AI_X, s.aiY, PADDLE_WIDTH, s.aiPaddleHeight, 10,
+                argb(255, 100, 100, 255), argb(200, 0, 0, 255));
 
         // Draw ball with glow
-        g2.setColor(Color.WHITE);
-        g2.fillOval(ballX, ballY, ballSize, ballSize);
-        g2.setColor(new Color(255, 255, 255, 100));
-        g2.fillOval(ballX - 2, ballY - 2, ballSize + 4, ballSize + 4);
-
-        // Draw power-up with pulsing effect
-        if (currentPower != null && currentPower.active) {
-            int pulseSize = (int)(currentPower.size * (1 + currentPower.pulse * 0.3));
-            int offset = (pulseSize - currentPower.size) / 2;
+        r.fillCircle(s.ballX, s.ballY, ballSize, 0xFFFFFFFF);
+        if (q.glow) {
+            r.fillCircle(s.ballX - 2, s.ballY - 2, ballSize + 4, argb(255, 255, 255, 100));
+        }
+
+        // Draw power-ups with pulsing effect
+        for (int i = 0; i < s.powerCount; i++) {
+            int size = s.powerSize[i];
+            int pulseSize = (int)(size * (1 + s.powerPulse[i] * 0.3));
+            int offset = (pulseSize - size) / 2;
             
-            switch (currentPower.type) {
+            int color = 0;
+            switch (s.powerType[i]) {
                 case PADDLE_BIG:
-                    g2.setColor(new Color(0, 255, 255, 200));
+                    color = argb(0, 255, 255, 200);
                     break;
                 case BALL_SLOW:
-                    g2.setColor(new Color(255, 200, 0, 200));
+                    color = argb(255, 200, 0, 200);
                     break;
                 case MULTI_BALL:
-                    g2.setColor(new Color(255, 0, 255, 200));
+                    color = argb(255, 0, 255, 200);
                     break;
                 case SPEED_BOOST:
-                    g2.setColor(new Color(255, 100, 100, 200));
+                    color = argb(255, 100, 100, 200);
                     break;
                 case MAGNET:
-                    g2.setColor(new Color(100, 255, 100, 200));
+                    color = argb(100, 255, 100, 200);
                     break;
                 case CONFUSE_AI:
-                    g2.setColor(new Color(255, 100, 255, 200));
+                    color = argb(255, 100, 255, 200);
                     break;
             }
             
-            g2.fillRect(currentPower.x - offset, currentPower.y - offset, pulseSize, pulseSize);
-            g2.setColor(Color.BLACK);
-            g2.setFont(new Font("Arial", Font.BOLD, 12));
-            String label = getPowerUpSymbol(currentPower.type);
-            g2.drawString(label, currentPower.x + 6 - offset, currentPower.y + 14 - offset);
+            r.fillRect(s.powerX[i] - offset, s.powerY[i] - offset, pulseSize, pulseSize, color);
         }
 
         // Draw sound visualization
-        g2.setColor(new Color(255, 255, 255, 100));
         int barWidth = 4;
-        for (int i = 0; i < soundBars.size(); i++) {
-            float height = soundBars.get(i);
-            g2.fillRect(10 + i * (barWidth + 2), HEIGHT - 20 - (int)height, barWidth, (int)height);
+        for (int i = 0; i < s.soundBarCount; i++) {
+            float height = s.soundBars[i];
+            r.fillRect(10 + i * (barWidth + 2), HEIGHT - 20 - (int)height, barWidth, (int)height, argb(255, 255, 255, 100));
+        }
+
+        // Draw ability charge bar
+        if (s.abilityCharge > 0) {
+            int barWidthFull = 100;
+            int chargedWidth = (int)(barWidthFull * (s.abilityCharge / (float)MAX_ABILITY_CHARGE));
+            
+            r.fillRect(PADDLE_X, s.playerY - 15, barWidthFull, 8, Color.DARK_GRAY.getRGB());
+            r.fillRect(PADDLE_X, s.playerY - 15, chargedWidth, 8, Color.CYAN.getRGB());
+        }
+    }
+
+    private static int argb(int r, int g, int b, int a) {
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    void drawText(Graphics2D g2, RenderState s, QualityGovernor.Level q) {
+        // Power-up symbols
+        g2.setColor(Color.BLACK);
+        for (int i = 0; i < s.powerCount; i++) {
+            int offset = ((int)(s.powerSize[i] * (1 + s.powerPulse[i] * 0.3)) - s.powerSize[i]) / 2;
+            POWER_TEXT.draw(g2, getPowerUpSymbol(s.powerType[i]), s.powerX[i] + 6 - offset, s.powerY[i] + 14 - offset);
         }
 
         // Draw scores with glow
-        g2.setFont(new Font("Consolas", Font.BOLD, 48));
-        
         // Player score
-        g2.setColor(new Color(100, 255, 100, 150));
-        g2.drawString(String.valueOf(playerScore), WIDTH/4 - 50, 70);
+        if (q.glow) {
+            g2.setColor(PLAYER_SCORE_GLOW);
+            SCORE_TEXT.draw(g2, s.playerScore, WIDTH/4 - 50, 70);
+        }
         g2.setColor(Color.GREEN);
-        g2.drawString(String.valueOf(playerScore), WIDTH/4 - 50, 65);
+        SCORE_TEXT.draw(g2, s.playerScore, WIDTH/4 - 50, 65);
         
         // AI score
-        g2.setColor(new Color(255, 100, 100, 150));
-        g2.drawString(String.valueOf(aiScore), WIDTH*3/4 - 20, 70);
+        if (q.glow) {
+            g2.setColor(AI_SCORE_GLOW);
+            SCORE_TEXT.draw(g2, s.aiScore, WIDTH*3/4 - 20, 70);
+        }
         g2.setColor(Color.RED);
-        g2.drawString(String.valueOf(aiScore), WIDTH*3/4 - 20, 65);
+        SCORE_TEXT.draw(g2, s.aiScore, WIDTH*3/4 - 20, 65);
 
-        // Draw ability charge bar
-        if (playerAbilityCharge > 0) {
-            int barWidthFull = 100;
-            int chargedWidth = (int)(barWidthFull * (playerAbilityCharge / (float)MAX_ABILITY_CHARGE));
-            
-            g2.setColor(Color.DARK_GRAY);
-            g2.fillRect(PADDLE_X, playerY - 15, barWidthFull, 8);
-            g2.setColor(Color.CYAN);
-            g2.fillRect(PADDLE_X, playerY - 15, chargedWidth, 8);
-            
-            if (playerAbilityCharge >= MAX_ABILITY_CHARGE) {
-                g2.setColor(Color.YELLOW);
-                g2.drawString("READY!", PADDLE_X, playerY - 20);
-            }
+        if (s.abilityCharge >= MAX_ABILITY_CHARGE) {
+            g2.setColor(Color.YELLOW);
+            SCORE_TEXT.draw(g2, "READY!", PADDLE_X, s.playerY - 20);
         }
 
         // Draw AI personality indicator
-        g2.setFont(new Font("Arial", Font.PLAIN, 12));
         g2.setColor(Color.WHITE);
-        g2.drawString("AI: " + aiPersonality, AI_X - 50, aiY - 10);
+        int labelX = LABEL_TEXT.draw(g2, "AI: ", AI_X - 50, s.aiY - 10);
+        LABEL_TEXT.draw(g2, s.aiName, labelX, s.aiY - 10);
 
         // Draw effect timers
-        g2.setFont(new Font("SansSerif", Font.PLAIN, 12));
-        g2.setColor(Color.WHITE);
-        long now = System.currentTimeMillis();
         int yOffset = HEIGHT - 12;
         
-        if (now < paddleBoostEndTime) {
-            int secs = (int)((paddleBoostEndTime - now)/1000);
-            g2.drawString("Paddle Boost: " + secs + "s", WIDTH - 170, yOffset);
+        if (s.paddleBoostLeft > 0) {
+            drawEffectTimer(g2, "Paddle Boost: ", s.paddleBoostLeft, yOffset);
             yOffset -= 15;
         }
-        if (now < ballSlowEndTime) {
-            int secs = (int)((ballSlowEndTime - now)/1000);
-            g2.drawString("Ball Slow: " + secs + "s", WIDTH - 170, yOffset);
+        if (s.ballSlowLeft > 0) {
+            drawEffectTimer(g2, "Ball Slow: ", s.ballSlowLeft, yOffset);
             yOffset -= 15;
         }
-        if (now < speedBoostEndTime) {
-            int secs = (int)((speedBoostEndTime - now)/1000);
-            g2.drawString("Speed Boost: " + secs + "s", WIDTH - 170, yOffset);
+        if (s.speedBoostLeft > 0) {
+            drawEffectTimer(g2, "Speed Boost: ", s.speedBoostLeft, yOffset);
             yOffset -= 15;
         }
-        if (now < magnetEndTime) {
-            int secs = (int)((magnetEndTime - now)/1000);
-            g2.drawString("Magnet: " + secs + "s", WIDTH - 170, yOffset);
+        if (s.magnetLeft > 0) {
+            drawEffectTimer(g2, "Magnet: ", s.magnetLeft, yOffset);
             yOffset -= 15;
         }
-        if (now < confuseAIEndTime) {
-            int secs = (int)((confuseAIEndTime - now)/1000);
-            g2.drawString("AI Confused: " + secs + "s", WIDTH - 170, yOffset);
+        if (s.confuseAILeft > 0) {
+            drawEffectTimer(g2, "AI Confused: ", s.confuseAILeft, yOffset);
         }
 
         // Draw controls
-        g2.drawString("W/S: Move  |  P: Pause  |  R: Restart  |  SPACE: Ability", 10, HEIGHT - 12);
+        g2.setColor(Color.WHITE);
+        HUD_TEXT.draw(g2, s.controlsHint, 10, HEIGHT - 12);
+
+        // Draw metrics overlay
+        if (s.showMetrics) {
+            g2.setFont(HUD_FONT);
+            g2.setColor(new Color(255, 255, 255, 180));
+            int my = 100;
+            for (String line : metrics.describe()) {
+                g2.drawString(line, 10, my);
+                my += 15;
+            }
+            g2.drawString("Renderer: " + (softwareRaster ? "software (F4)" : "java2d (F4)"), 10, my);
+        }
 
         // Game state messages
-        if (!gameStarted) {
-            g2.setFont(new Font("Arial", Font.BOLD, 36));
-            g2.setColor(Color.YELLOW);
-            g2.drawString("Press ANY KEY to Start", WIDTH/2 - 180, HEIGHT/2 - 10);
+        g2.setColor(Color.YELLOW);
+        if (!s.gameStarted) {
+            PROMPT_TEXT.draw(g2, "Press ANY KEY to Start", WIDTH/2 - 180, HEIGHT/2 - 10);
         }
         
-        if (!running) {
-            g2.setFont(new Font("Arial", Font.BOLD, 48));
-            g2.setColor(Color.YELLOW);
-            g2.drawString("Game Over", WIDTH/2 - 140, HEIGHT/2 - 10);
+        if (!s.running) {
+            MESSAGE_TEXT.draw(g2, "Game Over", WIDTH/2 - 140, HEIGHT/2 - 10);
         }
-        if (paused) {
-            g2.setFont(new Font("Arial", Font.BOLD, 48));
-            g2.setColor(Color.YELLOW);
-            g2.drawString("Paused", WIDTH/2 - 80, HEIGHT/2 - 10);
+        if (s.paused) {
+            MESSAGE_TEXT.draw(g2, "Paused", WIDTH/2 - 80, HEIGHT/2 - 10);
         }
     }
 
+    // "<label><seconds>s" without building a String
+    private void drawEffectTimer(Graphics2D g2, String label, long remaining, int y) {
+        g2.setColor(Color.WHITE);
+        int x = HUD_TEXT.draw(g2, label, WIDTH - 170, y);
+        x = HUD_TEXT.draw(g2, (int)(remaining/1000), x, y);
+        HUD_TEXT.draw(g2, "s", x, y);
+    }
+
     private String getPowerUpSymbol(PowerType type) {
         switch (type) {
             case PADDLE_BIG: return "P";
@@ -890,9 +1309,33 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
     // ------------ Input handling ------------
     @Override
     public void keyPressed(KeyEvent e) {
-        int kc = e.getKeyCode();
+        postKey(e.getKeyCode(), true);
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        postKey(e.getKeyCode(), false);
+    }
+
+    /**
+     * Queues a key event for the next tick, in terms of the default bindings
+     * (see ArcadeHost for remapped keys). Only one thread may post to a game.
+     */
+    void postKey(int keyCode, boolean pressed) {
+        input.offer(InputRing.keyEvent(keyCode, pressed));
+    }
+
+    private void applyInput() {
+        int event;
+        while ((event = input.poll()) != InputRing.EMPTY) {
+            if (InputRing.pressed(event)) pressKey(InputRing.keyCode(event));
+            else releaseKey(InputRing.keyCode(event));
+        }
+    }
+
+    private void pressKey(int kc) {
         if (!gameStarted) {
-            gameStarted = true;
+            startGame();
             return;
         }
         
@@ -901,11 +1344,11 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
         if (kc == KeyEvent.VK_P) paused = !paused;
         if (kc == KeyEvent.VK_R) restartGame();
         if (kc == KeyEvent.VK_SPACE) activatePlayerAbility();
+        if (kc == KeyEvent.VK_F3) showMetrics = !showMetrics;
+        if (kc == KeyEvent.VK_F4) softwareRaster = !softwareRaster;
     }
 
-    @Override
-    public void keyReleased(KeyEvent e) {
-        int kc = e.getKeyCode();
+    private void releaseKey(int kc) {
         if (kc == KeyEvent.VK_W) upPressed = false;
         if (kc == KeyEvent.VK_S) downPressed = false;
     }
@@ -914,9 +1357,88 @@ public class EnhancedPongGame extends JPanel implements ActionListener, KeyListe
 
     // ------------ Main ------------
     public static void main(String[] args) {
+        // --spectate <port> : serve a live spectator feed (see SpectatorFeed)
+        // --ai <name>        : pin the AI paddle to a controller (see PaddleController)
+        // --rules <file>     : load tuning values and reload them on change (see GameRules)
+        // --telemetry <file> : log gameplay events (see Telemetry, TelemetryAnalyzer)
+        // --seed <n>         : seed the match's random streams (see GameRandom)
+        // --renderer <name>  : java2d or software[:bands] (see Renderer)
+        SpectatorFeed feed = null;
+        PaddleController ai = null;
+        RulesWatcher watcher = null;
+        Telemetry log = null;
+        long seed = GameRandom.newSeed();
+        boolean software = false;
+        int bands = 1;
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("--spectate".equals(args[i])) {
+                try {
+                    feed = new SpectatorFeed(Integer.parseInt(args[i + 1]));
+                } catch (IOException | NumberFormatException ex) {
+                    System.err.println("Spectator feed disabled: " + ex.getMessage());
+                }
+            }
+            if ("--rules".equals(args[i])) {
+                try {
+                    watcher = new RulesWatcher(Paths.get(args[i + 1]));
+                } catch (IOException ex) {
+                    System.err.println("Using default rules, cannot watch the file: " + ex.getMessage());
+                }
+            }
+            if ("--telemetry".equals(args[i])) {
+                try {
+                    log = new Telemetry(Paths.get(args[i + 1]));
+                } catch (IOException ex) {
+                    System.err.println("Telemetry disabled: " + ex.getMessage());
+                }
+            }
+            if ("--seed".equals(args[i])) {
+                seed = Long.parseLong(args[i + 1]);
+            }
+            if ("--renderer".equals(args[i])) {
+                String[] r = args[i + 1].split(":");
+                software = "software".equals(r[0]);
+                if (!software && !"java2d".equals(r[0])) {
+                    System.err.println("Unknown renderer '" + r[0] + "', available: java2d software");
+                }
+                if (r.length > 1) bands = Integer.parseInt(r[1]);
+            }
+            if ("--ai".equals(args[i])) {
+                ai = PaddleControllers.find(args[i + 1]);
+                if (ai == null) {
+                    System.err.print("Unknown AI '" + args[i + 1] + "', available:");
+                    for (PaddleController c : PaddleControllers.all()) System.err.print(" " + c.name());
+                    System.err.println();
+                }
+            }
+        }
+        final SpectatorFeed spectatorFeed = feed;
+        final PaddleController aiController = ai;
+        final RulesWatcher rulesWatcher = watcher;
+        final Telemetry telemetry = log;
+        final long matchSeed = seed;
+        final boolean softwareRaster = software;
+        final int rasterBands = bands;
+
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Enhanced Pong - AI + Power-ups + Visual Effects");
-            EnhancedPongGame game = new EnhancedPongGame();
+            EnhancedPongGame game = new EnhancedPongGame(true, matchSeed);
+            game.setSpectatorFeed(spectatorFeed);
+            if (aiController != null) game.pinAIController(aiController);
+            game.rulesWatcher = rulesWatcher;
+            game.telemetry = telemetry;
+            game.softwareRaster = softwareRaster;
+            game.rasterBands = rasterBands;
+            if (telemetry != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    game.stopSimulation();
+                    try {
+                        telemetry.close();
+                    } catch (IOException ex) {
+                        System.err.println("Telemetry incomplete: " + ex.getMessage());
+                    }
+                }));
+            }
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             frame.setResizable(false);
             frame.add(game);
@@ -0,0 +1,61 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameMetrics.java
+ * Counters describing how the engine is coping, readable from any thread.
+ * Shown in-game with F3.
+ */
+class GameMetrics {
+    final AtomicLong aiDecisions = new AtomicLong();
+    final AtomicLong aiOverruns = new AtomicLong();
+    final AtomicLong aiErrors = new AtomicLong();
+    final AtomicLong aiMaxDecisionNanos = new AtomicLong();
+
+    // Rendering, see QualityGovernor
+    volatile String qualityLevel = "HIGH";
+    volatile long averagePaintNanos = 0;
+    final AtomicLong qualityChanges = new AtomicLong();
+
+    // Scheduled ticks (ArcadeHost): lateness against the fixed-rate deadline
+    final AtomicLong scheduledTicks = new AtomicLong();
+    final AtomicLong tickJitterTotalNanos = new AtomicLong();
+    final AtomicLong tickJitterMaxNanos = new AtomicLong();
+
+    void recordDecision(long nanos) {
+        aiDecisions.incrementAndGet();
+        long max;
+        while (nanos > (max = aiMaxDecisionNanos.get())) {
+            if (aiMaxDecisionNanos.compareAndSet(max, nanos)) break;
+        }
+    }
+
+    void recordTickJitter(long nanos) {
+        scheduledTicks.incrementAndGet();
+        tickJitterTotalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = tickJitterMaxNanos.get())) {
+            if (tickJitterMaxNanos.compareAndSet(max, nanos)) break;
+        }
+    }
+
+    void recordOverrun() {
+        aiOverruns.incrementAndGet();
+    }
+
+    void recordError() {
+        aiErrors.incrementAndGet();
+    }
+
+    /** One line per group, for overlays and logs. */
+    String[] describe() {
+        long ticks = scheduledTicks.get();
+        return new String[] {
+            String.format("AI decisions: %d  overruns: %d  errors: %d  max: %.2f ms",
+                    aiDecisions.get(), aiOverruns.get(), aiErrors.get(), aiMaxDecisionNanos.get() / 1e6),
+            String.format("Quality: %s  paint: %.2f ms  changes: %d",
+                    qualityLevel, averagePaintNanos / 1e6, qualityChanges.get()),
+            String.format("Tick jitter: avg %.3f ms  max: %.3f ms  ticks: %d",
+                    ticks == 0 ? 0 : tickJitterTotalNanos.get() / 1e6 / ticks, tickJitterMaxNanos.get() / 1e6, ticks)
+        };
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.SplittableRandom;
+
+/**
+ * GameRandom.java
+ * The random numbers of one match, as independent streams split from one
+ * seed.
+ *
+ *  - gameplay : serves, extra balls, power-up spawns, the confused AI.
+ *               Only draws that change the outcome of the match.
+ *  - effects  : particles, sound bars, extra ball colours, on the
+ *               simulation thread
+ *  - paint    : stars and screen shake, on whichever thread paints
+ *
+ * Effects never draw from the gameplay stream, so a non-interactive match
+ * replays exactly from its seed however many particles the quality level
+ * allows. Each match owns its streams and each stream is used by one
+ * thread, so parallel matches share nothing (unlike Math.random(), which
+ * every thread in the process contends on).
+ */
+final class GameRandom {
+    final long seed;
+    final SplittableRandom gameplay;
+    final SplittableRandom effects;
+    final SplittableRandom paint;
+
+    GameRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        gameplay = root.split();
+        effects = root.split();
+        paint = root.split();
+    }
+
+    /** A fresh seed for matches that don't need to be replayed. */
+    static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * GameRules.java
+ * Immutable set of gameplay tuning values, parsed once from a properties file
+ * (see rules.properties). Every field is a final primitive so the tick can
+ * read them without any lookups; a new version is swapped in as a whole by
+ * RulesWatcher.
+ *
+ * Missing keys fall back to the defaults below; unknown keys and out-of-range
+ * values reject the whole file.
+ */
+final class GameRules {
+    private static final Set<String> KNOWN_KEYS = new HashSet<>(Arrays.asList(
+        "player.speed", "paddle.height", "paddle.bigHeight",
+        "ball.speed", "ball.minSpeed", "ball.boostedSpeed", "ball.maxSpeed", "ball.boostedMaxSpeed",
+        "ball.hitSpeedup", "ball.boostedHitSpeedup", "ball.slowFactor",
+        "power.spawnInterval", "power.maxActive", "power.lifetime", "power.multiBallCount",
+        "effect.paddleBoost", "effect.ballSlow", "effect.speedBoost", "effect.magnet", "effect.confuseAI",
+        "ability.duration"
+    ));
+
+    static final GameRules DEFAULTS = new GameRules(new Properties());
+
+    // Paddles
+    final int playerSpeed;
+    final int paddleHeight;
+    final int bigPaddleHeight;
+
+    // Ball
+    final double ballSpeed;          // speed the ball settles back to after effects
+    final double minBallSpeed;       // floor for the settled speed
+    final double boostedBallSpeed;
+    final double maxBallSpeed;
+    final double boostedMaxBallSpeed;
+    final double hitSpeedup;         // added to the ball speed on every paddle hit
+    final double boostedHitSpeedup;
+    final double slowFactor;
+
+    // Power-ups and effects (ms)
+    final long powerSpawnInterval;
+    final int maxPowerUps;           // on the field at once
+    final long powerLifetime;        // 0 = until picked up
+    final long paddleBoostDuration;
+    final long ballSlowDuration;
+    final long speedBoostDuration;
+    final long magnetDuration;
+    final long confuseAIDuration;
+    final long abilityDuration;
+    final int multiBallCount;
+
+    private GameRules(Properties p) {
+        playerSpeed = intValue(p, "player.speed", 6, 1, 50);
+        paddleHeight = intValue(p, "paddle.height", 100, 20, 400);
+        bigPaddleHeight = intValue(p, "paddle.bigHeight", 160, 20, 400);
+
+        ballSpeed = doubleValue(p, "ball.speed", 5.5, 1, 30);
+        minBallSpeed = doubleValue(p, "ball.minSpeed", 4.5, 1, 30);
+        boostedBallSpeed = doubleValue(p, "ball.boostedSpeed", 8.0, 1, 30);
+        maxBallSpeed = doubleValue(p, "ball.maxSpeed", 12, 1, 30);
+        boostedMaxBallSpeed = doubleValue(p, "ball.boostedMaxSpeed", 15, 1, 30);
+        hitSpeedup = doubleValue(p, "ball.hitSpeedup", 0.2, 0, 5);
+        boostedHitSpeedup = doubleValue(p, "ball.boostedHitSpeedup", 1.0, 0, 5);
+        slowFactor = doubleValue(p, "ball.slowFactor", 0.55, 0.05, 1);
+
+        powerSpawnInterval = longValue(p, "power.spawnInterval", 10_000);
+        maxPowerUps = intValue(p, "power.maxActive", 3, 0, 1000);
+        powerLifetime = longValue(p, "power.lifetime", 15_000);
+        paddleBoostDuration = longValue(p, "effect.paddleBoost", 7_000);
+        ballSlowDuration = longValue(p, "effect.ballSlow", 6_000);
+        speedBoostDuration = longValue(p, "effect.speedBoost", 5_000);
+        magnetDuration = longValue(p, "effect.magnet", 8_000);
+        confuseAIDuration = longValue(p, "effect.confuseAI", 5_000);
+        abilityDuration = longValue(p, "ability.duration", 3_000);
+        multiBallCount = intValue(p, "power.multiBallCount", 2, 0, 50);
+
+        atMost("ball.minSpeed", minBallSpeed, "ball.speed", ballSpeed);
+        atMost("ball.minSpeed", minBallSpeed, "ball.boostedSpeed", boostedBallSpeed);
+        atMost("ball.minSpeed", minBallSpeed, "ball.maxSpeed", maxBallSpeed);
+
+        for (String key : p.stringPropertyNames()) {
+            if (!KNOWN_KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown rule '" + key + "'");
+            }
+        }
+    }
+
+    // A floor above the speeds it clamps would silently override them
+    private static void atMost(String lowKey, double low, String highKey, double high) {
+        if (low > high) {
+            throw new IllegalArgumentException("Rule '" + lowKey + "' (" + low + ") must not exceed '" + highKey + "' (" + high + ")");
+        }
+    }
+
+    static GameRules parse(Properties p) {
+        return new GameRules(p);
+    }
+
+    static GameRules load(Path file) throws IOException {
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(in);
+        }
+        return parse(p);
+    }
+
+    private static int intValue(Properties p, String key, int def, int min, int max) {
+        return (int) longValue(p, key, def, min, max);
+    }
+
+    // Durations: anything from "off" to ten minutes
+    private static long longValue(Properties p, String key, long def) {
+        return longValue(p, key, def, 0, 600_000);
+    }
+
+    private static long longValue(Properties p, String key, long def, long min, long max) {
+        String s = p.getProperty(key);
+        if (s == null) return def;
+        long v;
+        try {
+            v = Long.parseLong(s.trim().replace("_", ""));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Rule '" + key + "' is not a whole number: " + s);
+        }
+        if (v < min || v > max) {
+            throw new IllegalArgumentException("Rule '" + key + "' must be in [" + min + ", " + max + "]: " + v);
+        }
+        return v;
+    }
+
+    private static double doubleValue(Properties p, String key, double def, double min, double max) {
+        String s = p.getProperty(key);
+        if (s == null) return def;
+        double v;
+        try {
+            v = Double.parseDouble(s.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Rule '" + key + "' is not a number: " + s);
+        }
+        if (!(v >= min && v <= max)) {
+            throw new IllegalArgumentException("Rule '" + key + "' must be in [" + min + ", " + max + "]: " + v);
+        }
+        return v;
+    }
+}
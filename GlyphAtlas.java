@@ -0,0 +1,193 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GlyphAtlas.java
+ * Draws HUD text by blitting glyphs from one pre-rasterized image per font,
+ * so the paint path neither lays out text nor builds Strings.
+ *
+ * When an atlas is built every displayable character from space to 0xFF is
+ * rasterized once, antialiased and in white, into a single image, and its
+ * source rectangle, bearing and advance go into a table indexed by char
+ * code. Drawing looks each char up in that table and copies its rectangle;
+ * numbers are drawn digit by digit. Text takes the Graphics2D's current
+ * colour: the atlas keeps one tinted copy of its image per colour, made the
+ * first time that colour is used. On scaled surfaces (HiDPI, scaled views)
+ * a resampled blit would blur, so there each char is drawn from its cached
+ * GlyphVector at device resolution instead. Characters outside the table
+ * fall back to drawString.
+ *
+ * Atlases are shared by every game in the process. Only the tint list
+ * grows after construction.
+ */
+final class GlyphAtlas {
+    private static final Map<Font, GlyphAtlas> CACHE = new ConcurrentHashMap<>();
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, false);
+
+    private static final int FIRST = 32;
+    private static final int LAST = 0xFF;
+    private static final int ATLAS_WIDTH = 512;
+    // srcX, srcY, width, height, bearing x, bearing y, advance
+    private static final int STRIDE = 7;
+
+    private final Font font;
+    private final BufferedImage mask;
+    private final int[] table = new int[(LAST + 1) * STRIDE];
+    private final GlyphVector[] glyphs = new GlyphVector[LAST + 1];
+    private volatile Tint[] tints = new Tint[0];
+
+    private static final class Tint {
+        final int argb;
+        final BufferedImage image;
+
+        Tint(int argb, BufferedImage image) {
+            this.argb = argb;
+            this.image = image;
+        }
+    }
+
+    /** Returns the shared atlas for font, building it on first use. */
+    static GlyphAtlas get(Font font) {
+        return CACHE.computeIfAbsent(font, GlyphAtlas::new);
+    }
+
+    private GlyphAtlas(Font font) {
+        this.font = font;
+        Rectangle[] bounds = new Rectangle[LAST + 1];
+        char[] one = new char[1];
+
+        // Shelf-pack the glyphs left to right with a pixel between them
+        int x = 1, y = 1, rowHeight = 0;
+        for (int c = FIRST; c <= LAST; c++) {
+            if (!font.canDisplay((char) c)) continue;
+            one[0] = (char) c;
+            GlyphVector gv = font.createGlyphVector(FRC, one);
+            Rectangle b = gv.getGlyphPixelBounds(0, FRC, 0, 0);
+            b.grow(1, 1);
+            if (x + b.width + 1 > ATLAS_WIDTH) {
+                x = 1;
+                y += rowHeight + 1;
+                rowHeight = 0;
+            }
+            int i = c * STRIDE;
+            table[i] = x;
+            table[i + 1] = y;
+            table[i + 2] = b.width;
+            table[i + 3] = b.height;
+            table[i + 4] = b.x;
+            table[i + 5] = b.y;
+            table[i + 6] = Math.round(gv.getGlyphMetrics(0).getAdvance());
+            glyphs[c] = gv;
+            bounds[c] = b;
+            x += b.width + 1;
+            rowHeight = Math.max(rowHeight, b.height);
+        }
+
+        mask = new BufferedImage(ATLAS_WIDTH, y + rowHeight + 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = mask.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        for (int c = FIRST; c <= LAST; c++) {
+            if (glyphs[c] == null) continue;
+            int i = c * STRIDE;
+            g.drawGlyphVector(glyphs[c], table[i] - bounds[c].x, table[i + 1] - bounds[c].y);
+        }
+        g.dispose();
+    }
+
+    /** Draws text with its baseline at y, like drawString. Returns the x after the last glyph. */
+    int draw(Graphics2D g, String text, int x, int y) {
+        BufferedImage image = scaled(g) ? null : tinted(g.getColor());
+        for (int k = 0, n = text.length(); k < n; k++) {
+            x = drawChar(g, image, text.charAt(k), x, y);
+        }
+        return x;
+    }
+
+    /** Draws value in decimal without allocating. Returns the x after the last digit. */
+    int draw(Graphics2D g, int value, int x, int y) {
+        BufferedImage image = scaled(g) ? null : tinted(g.getColor());
+        long v = value;
+        if (v < 0) {
+            x = drawChar(g, image, '-', x, y);
+            v = -v;
+        }
+        long div = 1;
+        while (div * 10 <= v) div *= 10;
+        for (; div > 0; div /= 10) {
+            x = drawChar(g, image, (char) ('0' + (v / div) % 10), x, y);
+        }
+        return x;
+    }
+
+    private static boolean scaled(Graphics2D g) {
+        AffineTransform t = g.getTransform();
+        return t.getScaleX() != 1 || t.getScaleY() != 1 || t.getShearX() != 0 || t.getShearY() != 0;
+    }
+
+    private int drawChar(Graphics2D g, BufferedImage image, char c, int x, int y) {
+        if (c > LAST || glyphs[c] == null) {
+            return drawMissing(g, c, x, y);
+        }
+        int i = c * STRIDE;
+        if (image == null) {
+            g.drawGlyphVector(glyphs[c], x, y);
+        } else {
+            int sx = table[i], sy = table[i + 1], w = table[i + 2], h = table[i + 3];
+            int dx = x + table[i + 4], dy = y + table[i + 5];
+            g.drawImage(image, dx, dy, dx + w, dy + h, sx, sy, sx + w, sy + h, null);
+        }
+        return x + table[i + 6];
+    }
+
+    private int drawMissing(Graphics2D g, char c, int x, int y) {
+        String s = String.valueOf(c);
+        Font old = g.getFont();
+        g.setFont(font);
+        g.drawString(s, x, y);
+        int advance = g.getFontMetrics().stringWidth(s);
+        g.setFont(old);
+        return x + advance;
+    }
+
+    // The atlas image in color, made once per colour and then shared
+    private BufferedImage tinted(Color color) {
+        int argb = color.getRGB();
+        Tint[] current = tints;
+        for (Tint t : current) {
+            if (t.argb == argb) return t.image;
+        }
+        synchronized (this) {
+            for (Tint t : tints) {
+                if (t.argb == argb) return t.image;
+            }
+            BufferedImage image = new BufferedImage(mask.getWidth(), mask.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+            int[] src = ((DataBufferInt) mask.getRaster().getDataBuffer()).getData();
+            int[] dst = new int[src.length];
+            int alpha = argb >>> 24, r = (argb >> 16) & 0xFF, gr = (argb >> 8) & 0xFF, b = argb & 0xFF;
+            for (int p = 0; p < src.length; p++) {
+                int a = (src[p] >>> 24) * alpha / 255;
+                if (a != 0) {
+                    dst[p] = a << 24 | (r * a / 255) << 16 | (gr * a / 255) << 8 | b * a / 255;
+                }
+            }
+            // setDataElements copies, so the image stays eligible for acceleration
+            image.getRaster().setDataElements(0, 0, image.getWidth(), image.getHeight(), dst);
+            Tint[] grown = new Tint[tints.length + 1];
+            System.arraycopy(tints, 0, grown, 0, tints.length);
+            grown[tints.length] = new Tint(argb, image);
+            tints = grown;
+            return image;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HeadlessRender.java
+ * Renders a simulated match to disk without opening a window.
+ *
+ * The simulation runs on the main thread as fast as it can and draws each
+ * frame into a BufferedImage taken from a small pool. Compression and file
+ * output run on a worker pool with one thread per core. The pool is the only
+ * source of images, so when the workers fall behind the simulation simply
+ * waits for one to come back and memory stays bounded.
+ *
+ * Output:
+ *  - a directory      : PNG sequence frame_000000.png, frame_000001.png, ...
+ *  - a file ".y4m"    : uncompressed YUV4MPEG2 (4:4:4) video, playable by
+ *                       ffmpeg/mpv/VLC
+ *
+ * Usage: java -Djava.awt.headless=true HeadlessRender <out> [seconds] [workers] [every] [seed]
+ *   every : keep one frame out of this many ticks (default 1)
+ *   seed  : replays the same match (default: a new one each run, printed at the end)
+ */
+public class HeadlessRender {
+
+    /** Where frames go. encode() runs on worker threads, write() in frame order. */
+    interface FrameSink extends Closeable {
+        /** Returns bytes to pass to write(), or null if the frame is already stored. */
+        byte[] encode(BufferedImage frame, int index) throws IOException;
+
+        void write(byte[] data) throws IOException;
+    }
+
+    static class PngSequence implements FrameSink {
+        private final File dir;
+
+        PngSequence(File dir) throws IOException {
+            if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+            this.dir = dir;
+        }
+
+        @Override
+        public byte[] encode(BufferedImage frame, int index) throws IOException {
+            ImageIO.write(frame, "png", new File(dir, String.format("frame_%06d.png", index)));
+            return null;
+        }
+
+        @Override public void write(byte[] data) {}
+        @Override public void close() {}
+    }
+
+    static class Y4mVideo implements FrameSink {
+        private static final byte[] FRAME_HEADER = "FRAME\n".getBytes(StandardCharsets.US_ASCII);
+        private final OutputStream out;
+
+        Y4mVideo(File file, int width, int height, int fpsNum, int fpsDen) throws IOException {
+            out = new BufferedOutputStream(new FileOutputStream(file), 1 << 20);
+            String header = "YUV4MPEG2 W" + width + " H" + height + " F" + fpsNum + ":" + fpsDen + " Ip A1:1 C444\n";
+            out.write(header.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        // BT.601 studio range, one plane each for Y, Cb and Cr
+        @Override
+        public byte[] encode(BufferedImage frame, int index) {
+            int[] rgb = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+            int n = rgb.length;
+            int h = FRAME_HEADER.length;
+            byte[] data = new byte[h + n * 3];
+            System.arraycopy(FRAME_HEADER, 0, data, 0, h);
+            for (int i = 0; i < n; i++) {
+                int p = rgb[i];
+                int r = (p >> 16) & 0xFF;
+                int g = (p >> 8) & 0xFF;
+                int b = p & 0xFF;
+                data[h + i] = (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16);
+                data[h + n + i] = (byte) (((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128);
+                data[h + 2 * n + i] = (byte) (((112 * r - 94 * g - 18 * b + 128) >> 8) + 128);
+            }
+            return data;
+        }
+
+        @Override
+        public void write(byte[] data) throws IOException {
+            out.write(data);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final Future<byte[]> END = CompletableFuture.completedFuture(null);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java -Djava.awt.headless=true HeadlessRender <dir|file.y4m> [seconds] [workers] [every] [seed]");
+            System.exit(1);
+        }
+        File target = new File(args[0]);
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int every = args.length > 3 ? Math.max(1, Integer.parseInt(args[3])) : 1;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : GameRandom.newSeed();
+
+        EnhancedPongGame game = new EnhancedPongGame(false, seed);
+        game.setPlayerController(PaddleControllers.NORMAL);
+        game.startGame();
+
+        int width = EnhancedPongGame.WIDTH;
+        int height = EnhancedPongGame.HEIGHT;
+        int frames = (int) (seconds * 1000 / (game.DELAY * every));
+        final FrameSink sink = target.getName().endsWith(".y4m")
+                ? new Y4mVideo(target, width, height, 1000, game.DELAY * every)
+                : new PngSequence(target);
+
+        // Two images per worker: one being encoded, one waiting in line
+        int inFlight = workers * 2;
+        final BlockingQueue<BufferedImage> pool = new ArrayBlockingQueue<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            pool.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+        final BlockingQueue<Future<byte[]>> ordered = new ArrayBlockingQueue<>(inFlight);
+        ExecutorService encoders = Executors.newFixedThreadPool(workers);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        // Keeps draining after a failure so the simulation never blocks on a dead writer
+        Thread writer = new Thread(() -> {
+            try {
+                Future<byte[]> f;
+                while ((f = ordered.take()) != END) {
+                    try {
+                        byte[] data = f.get();
+                        if (data != null && failure.get() == null) sink.write(data);
+                    } catch (ExecutionException | IOException ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, "frame-writer");
+        writer.start();
+
+        long start = System.nanoTime();
+        for (int index = 0; index < frames && failure.get() == null; index++) {
+            for (int i = 0; i < every; i++) {
+                game.step();
+            }
+            final BufferedImage image = pool.take();
+            Graphics2D g2 = image.createGraphics();
+            game.render(g2);
+            g2.dispose();
+
+            final int frameIndex = index;
+            ordered.put(encoders.submit(() -> {
+                try {
+                    return sink.encode(image, frameIndex);
+                } finally {
+                    pool.add(image);
+                }
+            }));
+        }
+        ordered.put(END);
+        game.shutdownControllers();
+        writer.join();
+        encoders.shutdown();
+        sink.close();
+        if (failure.get() != null) throw failure.get();
+
+        double wall = (System.nanoTime() - start) / 1e9;
+        double simulated = frames * every * game.DELAY / 1000.0;
+        System.out.printf("%d frames (%.1f s of play) in %.2f s with %d workers: %.1f fps, %.1fx real time, seed %d%n",
+                frames, simulated, wall, workers, frames / wall, simulated / wall, seed);
+    }
+}
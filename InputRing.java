@@ -0,0 +1,66 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InputRing.java
+ * Key events from the Swing thread to the simulation thread: a bounded
+ * single-producer / single-consumer ring with no locks.
+ *
+ * Each side owns one counter and only reads the other's, so an offer or
+ * poll is one plain array access plus one ordered store. When the ring is
+ * full (the simulation stalled for several seconds) new events are dropped
+ * and counted rather than blocking the Swing thread.
+ */
+final class InputRing {
+    static final int EMPTY = -1;
+
+    private final int[] events;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next to write, written by the producer
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** capacity is rounded up to a power of two. */
+    InputRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        events = new int[size];
+        mask = size - 1;
+    }
+
+    /** Event for a key press or release; keyCode must be non-negative. */
+    static int keyEvent(int keyCode, boolean pressed) {
+        return keyCode << 1 | (pressed ? 1 : 0);
+    }
+
+    static int keyCode(int event) {
+        return event >>> 1;
+    }
+
+    static boolean pressed(int event) {
+        return (event & 1) != 0;
+    }
+
+    /** Producer only. Returns false (and counts a drop) if the ring is full. */
+    boolean offer(int event) {
+        long t = tail.get();
+        if (t - head.get() == events.length) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        events[(int) t & mask] = event;
+        tail.lazySet(t + 1); // publishes the slot write above
+        return true;
+    }
+
+    /** Consumer only. Returns EMPTY when there is nothing to read. */
+    int poll() {
+        long h = head.get();
+        if (h == tail.get()) return EMPTY;
+        int event = events[(int) h & mask];
+        head.lazySet(h + 1);
+        return event;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+}
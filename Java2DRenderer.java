@@ -0,0 +1,45 @@
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * Java2DRenderer.java
+ * Renderer backed directly by Graphics2D. The reference backend: this is
+ * how the game has always drawn.
+ */
+final class Java2DRenderer implements Renderer {
+    private Graphics2D g;
+
+    @Override
+    public void begin(Graphics2D g, boolean antialias) {
+        this.g = g;
+        if (antialias) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+    }
+
+    @Override
+    public void fillRect(int x, int y, int w, int h, int argb) {
+        g.setColor(new Color(argb, true));
+        g.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int size, int argb) {
+        g.setColor(new Color(argb, true));
+        g.fillOval(x, y, size, size);
+    }
+
+    @Override
+    public void fillGradient(int x, int y, int w, int h, int arc, int topArgb, int bottomArgb) {
+        g.setPaint(new GradientPaint(x, y, new Color(topArgb, true), x, y + h, new Color(bottomArgb, true)));
+        if (arc > 0) g.fillRoundRect(x, y, w, h, arc, arc);
+        else g.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void end() {
+        g = null;
+    }
+}
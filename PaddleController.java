@@ -0,0 +1,21 @@
+/**
+ * PaddleController.java
+ * Strategy that decides where a paddle goes each tick.
+ *
+ * The built-in AI personalities live in TrackingController. Third-party bots
+ * implement this interface, provide a public no-arg constructor and list the
+ * class in META-INF/services/PaddleController on the classpath; they can then
+ * be picked by name with --ai.
+ *
+ * decide() runs under a per-tick time budget on its own thread (see
+ * BudgetedController), so it must not rely on being called every tick and
+ * must only read the view it is given.
+ */
+public interface PaddleController {
+
+    /** Short name shown next to the paddle and used by --ai. */
+    String name();
+
+    /** Returns the paddle's new top Y for this tick. The engine clamps it to the field. */
+    int decide(PaddleView view);
+}
@@ -0,0 +1,48 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * PaddleControllers.java
+ * Lookup for the built-in personalities and bots found through ServiceLoader.
+ */
+final class PaddleControllers {
+    static final PaddleController NORMAL = new TrackingController.Normal();
+    static final PaddleController AGGRESSIVE = new TrackingController.Aggressive();
+    static final PaddleController DEFENSIVE = new TrackingController.Defensive();
+
+    private PaddleControllers() {}
+
+    static boolean isBuiltIn(PaddleController c) {
+        return c == NORMAL || c == AGGRESSIVE || c == DEFENSIVE;
+    }
+
+    /** Built-ins followed by every discovered third-party controller. */
+    static List<PaddleController> all() {
+        List<PaddleController> list = new ArrayList<>();
+        list.add(NORMAL);
+        list.add(AGGRESSIVE);
+        list.add(DEFENSIVE);
+        Iterator<PaddleController> it = ServiceLoader.load(PaddleController.class).iterator();
+        while (true) {
+            try {
+                if (!it.hasNext()) break;
+                list.add(it.next());
+            } catch (ServiceConfigurationError ex) {
+                // A broken bot must not take the built-in AI down with it
+                System.err.println("Skipping paddle controller: " + ex.getMessage());
+            }
+        }
+        return list;
+    }
+
+    /** Finds a controller by name (case-insensitive), or null. */
+    static PaddleController find(String name) {
+        for (PaddleController c : all()) {
+            if (c.name().equalsIgnoreCase(name)) return c;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * PaddleView.java
+ * Read-only snapshot of what a PaddleController may base its decision on.
+ * The engine fills it each tick and hands bots a private copy.
+ */
+public class PaddleView {
+    public int fieldWidth, fieldHeight;
+
+    // The paddle being controlled
+    public int paddleX, paddleY, paddleHeight;
+    public boolean leftSide;
+
+    public int opponentY, opponentHeight;
+
+    public int ballX, ballY, ballSize;
+    public double ballVX, ballVY;
+
+    // Difficulty, tuned by the engine from the score
+    public double maxSpeed;
+    public double reaction;
+
+    public int ownScore, opponentScore;
+
+    PaddleView copy() {
+        PaddleView v = new PaddleView();
+        v.fieldWidth = fieldWidth; v.fieldHeight = fieldHeight;
+        v.paddleX = paddleX; v.paddleY = paddleY; v.paddleHeight = paddleHeight;
+        v.leftSide = leftSide;
+        v.opponentY = opponentY; v.opponentHeight = opponentHeight;
+        v.ballX = ballX; v.ballY = ballY; v.ballSize = ballSize;
+        v.ballVX = ballVX; v.ballVY = ballVY;
+        v.maxSpeed = maxSpeed;
+        v.reaction = reaction;
+        v.ownScore = ownScore; v.opponentScore = opponentScore;
+        return v;
+    }
+}
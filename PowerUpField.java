@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PowerUpField.java
+ * All power-ups currently on the field, with a spatial hash for pickups.
+ *
+ * Power-ups never move, so the hash (a uniform grid of CELL-sized buckets)
+ * is only rebuilt when one is added, picked up or expires. A pickup query
+ * then looks at the few buckets under the querying rectangle instead of at
+ * every power-up, which keeps "every ball against every power-up" close to
+ * linear when both number in the hundreds.
+ *
+ * Picked-up power-ups are only marked inactive during the tick; update()
+ * removes them at the start of the next one.
+ */
+class PowerUpField {
+    static final int CELL = 64;
+
+    private final int cols, rows;
+    private final List<EnhancedPongGame.PowerUp> items = new ArrayList<>();
+
+    // Bucket lists as linked entries in flat arrays: cellHead -> entry -> entryNext ...
+    private final int[] cellHead;
+    private int[] entryItem = new int[64];
+    private int[] entryNext = new int[64];
+    private int entryCount = 0;
+    private boolean dirty = true;
+
+    PowerUpField(int width, int height) {
+        cols = (width + CELL - 1) / CELL;
+        rows = (height + CELL - 1) / CELL;
+        cellHead = new int[cols * rows];
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    EnhancedPongGame.PowerUp get(int i) {
+        return items.get(i);
+    }
+
+    void add(EnhancedPongGame.PowerUp p) {
+        items.add(p);
+        dirty = true;
+    }
+
+    void clear() {
+        items.clear();
+        dirty = true;
+    }
+
+    /** Animates power-ups and drops the ones picked up or past their expiry time. */
+    void update(long now) {
+        for (int i = 0; i < items.size(); i++) {
+            EnhancedPongGame.PowerUp p = items.get(i);
+            if (!p.active || (p.expiresAt > 0 && now >= p.expiresAt)) {
+                items.remove(i);
+                i--;
+                dirty = true;
+                continue;
+            }
+            p.update();
+        }
+    }
+
+    /**
+     * Picks up the first active power-up overlapping the given rectangle:
+     * marks it inactive and returns it, or returns null.
+     */
+    EnhancedPongGame.PowerUp take(int x, int y, int w, int h) {
+        if (items.isEmpty()) return null;
+        if (dirty) rebuild();
+
+        int c0 = col(x), c1 = col(x + w);
+        int r0 = row(y), r1 = row(y + h);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int e = cellHead[r * cols + c]; e >= 0; e = entryNext[e]) {
+                    EnhancedPongGame.PowerUp p = items.get(entryItem[e]);
+                    if (p.active && x < p.x + p.size && p.x < x + w && y < p.y + p.size && p.y < y + h) {
+                        p.active = false;
+                        return p;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        Arrays.fill(cellHead, -1);
+        entryCount = 0;
+        for (int i = 0; i < items.size(); i++) {
+            EnhancedPongGame.PowerUp p = items.get(i);
+            int c0 = col(p.x), c1 = col(p.x + p.size);
+            int r0 = row(p.y), r1 = row(p.y + p.size);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    if (entryCount == entryItem.length) {
+                        entryItem = Arrays.copyOf(entryItem, entryCount * 2);
+                        entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                    }
+                    int cell = r * cols + c;
+                    entryItem[entryCount] = i;
+                    entryNext[entryCount] = cellHead[cell];
+                    cellHead[cell] = entryCount++;
+                }
+            }
+        }
+        dirty = false;
+    }
+
+    // Anything off the field lands in the border buckets
+    private int col(int x) {
+        return Math.max(0, Math.min(cols - 1, Math.floorDiv(x, CELL)));
+    }
+
+    private int row(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y, CELL)));
+    }
+}
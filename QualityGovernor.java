@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * QualityGovernor.java
+ * Trades visual effects for frame time on slow machines.
+ *
+ * The painter reports how long each frame took. Once a full window of frames
+ * averages above STEP_DOWN_NANOS the governor drops one quality level; when
+ * frames have stayed below STEP_UP_NANOS for RECOVER_FRAMES it climbs back one
+ * level. The gap between the two thresholds and the longer recovery period
+ * keep it from flapping between levels.
+ */
+class QualityGovernor {
+
+    enum Level {
+        //      burst  ability  live  trail  stars  glow   antialias
+        HIGH   (8,     50,      600,  10,    50,    true,  true),
+        MEDIUM (5,     30,      300,  6,     25,    true,  true),
+        LOW    (3,     12,      120,  3,     0,     false, true),
+        MINIMAL(1,     4,       40,   0,     0,     false, false);
+
+        final int particlesPerBurst;
+        final int abilityParticles;
+        final int maxParticles;
+        final int trailLength;
+        final int stars;
+        final boolean glow;
+        final boolean antialias;
+
+        Level(int particlesPerBurst, int abilityParticles, int maxParticles, int trailLength,
+              int stars, boolean glow, boolean antialias) {
+            this.particlesPerBurst = particlesPerBurst;
+            this.abilityParticles = abilityParticles;
+            this.maxParticles = maxParticles;
+            this.trailLength = trailLength;
+            this.stars = stars;
+            this.glow = glow;
+            this.antialias = antialias;
+        }
+    }
+
+    static final int WINDOW = 30;
+    static final int RECOVER_FRAMES = 180; // ~3 s of headroom before stepping back up
+    static final long STEP_DOWN_NANOS = 12_000_000; // leave room for the tick inside 16 ms
+    static final long STEP_UP_NANOS = 6_000_000;
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final GameMetrics metrics;
+    private final long[] frameNanos = new long[WINDOW];
+    private int frameIndex = 0;
+    private long windowSum = 0;
+    private int framesSinceChange = 0;
+    private int calmFrames = 0;
+    private volatile Level level = Level.HIGH;
+
+    QualityGovernor(GameMetrics metrics) {
+        this.metrics = metrics;
+        metrics.qualityLevel = level.name();
+    }
+
+    Level level() {
+        return level;
+    }
+
+    /** Called by the painter after each frame. */
+    void recordFrame(long nanos) {
+        windowSum += nanos - frameNanos[frameIndex];
+        frameNanos[frameIndex] = nanos;
+        frameIndex = (frameIndex + 1) % WINDOW;
+        framesSinceChange++;
+        calmFrames = nanos < STEP_UP_NANOS ? calmFrames + 1 : 0;
+        if (framesSinceChange < WINDOW) return;
+
+        long average = windowSum / WINDOW;
+        metrics.averagePaintNanos = average;
+        int ordinal = level.ordinal();
+        if (average > STEP_DOWN_NANOS && ordinal < LEVELS.length - 1) {
+            change(LEVELS[ordinal + 1]);
+        } else if (calmFrames >= RECOVER_FRAMES && ordinal > 0) {
+            change(LEVELS[ordinal - 1]);
+        }
+    }
+
+    private void change(Level next) {
+        level = next;
+        // Frames measured at the old level say nothing about the new one
+        Arrays.fill(frameNanos, 0);
+        windowSum = 0;
+        framesSinceChange = 0;
+        calmFrames = 0;
+        metrics.qualityLevel = next.name();
+        metrics.qualityChanges.incrementAndGet();
+    }
+}
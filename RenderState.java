@@ -0,0 +1,91 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * RenderState.java
+ * Everything EnhancedPongGame.render() draws, copied out of the game at the
+ * end of a tick.
+ *
+ * The simulation thread fills one of these per tick and hands it to the
+ * Swing thread through a TripleBuffer, so painting never reads a field the
+ * simulation is writing. Arrays are reused and only grow; count fields say
+ * how much of each is in use.
+ */
+final class RenderState {
+    float screenShake;
+    int ballX, ballY, ballSize;
+    int playerY, aiY, playerPaddleHeight, aiPaddleHeight;
+    int playerScore, aiScore;
+    int abilityCharge;
+    String aiName = "";
+    String controlsHint = "";
+    boolean gameStarted, running, paused, showMetrics;
+
+    // Milliseconds left on each effect, 0 when not active
+    long paddleBoostLeft, ballSlowLeft, speedBoostLeft, magnetLeft, confuseAILeft;
+
+    int particleCount;
+    float[] particleX = new float[64], particleY = new float[64];
+    float[] particleSize = new float[64], particleLife = new float[64];
+    Color[] particleColor = new Color[64];
+
+    int trailCount;
+    float[] trailX = new float[16], trailY = new float[16], trailLife = new float[16];
+
+    int extraBallCount;
+    int[] extraBallX = new int[8], extraBallY = new int[8];
+    Color[] extraBallColor = new Color[8];
+
+    int powerCount;
+    int[] powerX = new int[8], powerY = new int[8], powerSize = new int[8];
+    float[] powerPulse = new float[8];
+    EnhancedPongGame.PowerType[] powerType = new EnhancedPongGame.PowerType[8];
+
+    int soundBarCount;
+    float[] soundBars = new float[32];
+
+    void setParticleCount(int n) {
+        particleCount = n;
+        if (n <= particleX.length) return;
+        int size = Math.max(n, particleX.length * 2);
+        particleX = Arrays.copyOf(particleX, size);
+        particleY = Arrays.copyOf(particleY, size);
+        particleSize = Arrays.copyOf(particleSize, size);
+        particleLife = Arrays.copyOf(particleLife, size);
+        particleColor = Arrays.copyOf(particleColor, size);
+    }
+
+    void setTrailCount(int n) {
+        trailCount = n;
+        if (n <= trailX.length) return;
+        int size = Math.max(n, trailX.length * 2);
+        trailX = Arrays.copyOf(trailX, size);
+        trailY = Arrays.copyOf(trailY, size);
+        trailLife = Arrays.copyOf(trailLife, size);
+    }
+
+    void setExtraBallCount(int n) {
+        extraBallCount = n;
+        if (n <= extraBallX.length) return;
+        int size = Math.max(n, extraBallX.length * 2);
+        extraBallX = Arrays.copyOf(extraBallX, size);
+        extraBallY = Arrays.copyOf(extraBallY, size);
+        extraBallColor = Arrays.copyOf(extraBallColor, size);
+    }
+
+    void setPowerCount(int n) {
+        powerCount = n;
+        if (n <= powerX.length) return;
+        int size = Math.max(n, powerX.length * 2);
+        powerX = Arrays.copyOf(powerX, size);
+        powerY = Arrays.copyOf(powerY, size);
+        powerSize = Arrays.copyOf(powerSize, size);
+        powerPulse = Arrays.copyOf(powerPulse, size);
+        powerType = Arrays.copyOf(powerType, size);
+    }
+
+    void setSoundBarCount(int n) {
+        soundBarCount = n;
+        if (n > soundBars.length) soundBars = Arrays.copyOf(soundBars, n);
+    }
+}
@@ -0,0 +1,32 @@
+import java.awt.Graphics2D;
+
+/**
+ * Renderer.java
+ * The shapes EnhancedPongGame draws each frame, independent of how they get
+ * onto the screen.
+ *
+ * Colours are 0xAARRGGBB. Text is not part of it: it always goes through
+ * Graphics2D (see GlyphAtlas) and is drawn over the shapes after end().
+ *
+ * Backends:
+ *  - Java2DRenderer   : straight Graphics2D calls, the reference
+ *  - SoftwareRenderer : rasterizes into an int[] framebuffer and presents
+ *                       it with one drawImage
+ *
+ * Compare them with RendererCompare.
+ */
+interface Renderer {
+    /** Starts a frame that will end up on g (already translated for screen shake). */
+    void begin(Graphics2D g, boolean antialias);
+
+    void fillRect(int x, int y, int w, int h, int argb);
+
+    /** The circle inscribed in the size x size square at x, y, like Graphics.fillOval. */
+    void fillCircle(int x, int y, int size, int argb);
+
+    /** Vertical gradient from top to bottom; arc as in Graphics.fillRoundRect, 0 for square corners. */
+    void fillGradient(int x, int y, int w, int h, int arc, int topArgb, int bottomArgb);
+
+    /** Finishes the frame; everything is on g once this returns. */
+    void end();
+}
@@ -0,0 +1,163 @@
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+
+/**
+ * RendererCompare.java
+ * Plays the same match twice in lockstep, drawing one copy with
+ * Java2DRenderer and the other with SoftwareRenderer, and compares the
+ * frames pixel by pixel.
+ *
+ * Both copies share a seed and never record frame times, so they stay on
+ * the same quality level and draw the same stars and shake. Any difference
+ * in the output is the rasterizer's. Every second both copies get the same
+ * burst of particles in mid-field, so the particle path is always covered.
+ * Also reports the time per frame of each backend, overall and on frames
+ * with many particles.
+ *
+ * Exits with status 1 if the frames differ by more than the tolerances
+ * below, or if no frame was busy enough to exercise the particles, so it
+ * can run in a script after changes to SoftwareRenderer.
+ *
+ * Usage: java -Djava.awt.headless=true RendererCompare [frames] [seed] [bands] [scale] [diff.png]
+ *   bands    : rasterizer threads for the software backend (default 1)
+ *   scale    : draws both through g.scale, like ArcadeHost tiles or a HiDPI
+ *              screen (default 1)
+ *   diff.png : writes the worst frame, amplified differences in red
+ */
+public class RendererCompare {
+    static final double MAX_MEAN_DIFF = 1.5;      // mean absolute channel difference, 0..255
+    static final double MAX_FAR_PIXELS = 0.5;     // % of pixels with a channel off by more than FAR
+    static final int FAR = 32;
+    static final int BUSY_PARTICLES = 40;         // frames with at least this many count as busy
+    static final int BURST_EVERY = 60;            // ticks between particle bursts
+    static final int BURSTS = 6;                  // createParticles calls per burst, 48 particles at HIGH
+
+    public static void main(String[] args) throws Exception {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : GameRandom.newSeed();
+        int bands = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        double scale = args.length > 3 ? Double.parseDouble(args[3]) : 1;
+        File diffOut = args.length > 4 ? new File(args[4]) : null;
+
+        EnhancedPongGame reference = new EnhancedPongGame(false, seed);
+        EnhancedPongGame software = new EnhancedPongGame(false, seed);
+        software.softwareRaster = true;
+        software.rasterBands = bands;
+        for (EnhancedPongGame game : new EnhancedPongGame[] { reference, software }) {
+            game.setPlayerController(PaddleControllers.AGGRESSIVE);
+            game.startGame();
+        }
+
+        int width = (int) Math.round(EnhancedPongGame.WIDTH * scale);
+        int height = (int) Math.round(EnhancedPongGame.HEIGHT * scale);
+        BufferedImage a = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        BufferedImage b = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pa = ((DataBufferInt) a.getRaster().getDataBuffer()).getData();
+        int[] pb = ((DataBufferInt) b.getRaster().getDataBuffer()).getData();
+        RenderState sa = new RenderState();
+        RenderState sb = new RenderState();
+
+        long javaNanos = 0, softNanos = 0, busyJavaNanos = 0, busySoftNanos = 0;
+        int busyFrames = 0;
+        double diffTotal = 0;
+        long farTotal = 0;
+        double worstDiff = -1;
+        int worstFrame = 0;
+        BufferedImage worst = null;
+
+        for (int frame = 0; frame < frames; frame++) {
+            if (frame % BURST_EVERY == 0) {
+                for (int i = 0; i < BURSTS; i++) {
+                    reference.createParticles(EnhancedPongGame.WIDTH / 2, EnhancedPongGame.HEIGHT / 2, Color.CYAN);
+                    software.createParticles(EnhancedPongGame.WIDTH / 2, EnhancedPongGame.HEIGHT / 2, Color.CYAN);
+                }
+            }
+            reference.step();
+            software.step();
+            reference.capture(sa);
+            software.capture(sb);
+
+            long t0 = System.nanoTime();
+            Graphics2D g = a.createGraphics();
+            g.scale(scale, scale);
+            reference.render(g, sa);
+            g.dispose();
+            long t1 = System.nanoTime();
+            g = b.createGraphics();
+            g.scale(scale, scale);
+            software.render(g, sb);
+            g.dispose();
+            long t2 = System.nanoTime();
+
+            javaNanos += t1 - t0;
+            softNanos += t2 - t1;
+            if (sa.particleCount >= BUSY_PARTICLES) {
+                busyFrames++;
+                busyJavaNanos += t1 - t0;
+                busySoftNanos += t2 - t1;
+            }
+
+            long channels = 0;
+            int far = 0;
+            for (int i = 0; i < pa.length; i++) {
+                int x = pa[i], y = pb[i];
+                if (x == y) continue;
+                int dr = Math.abs((x >> 16 & 0xFF) - (y >> 16 & 0xFF));
+                int dg = Math.abs((x >> 8 & 0xFF) - (y >> 8 & 0xFF));
+                int db = Math.abs((x & 0xFF) - (y & 0xFF));
+                channels += dr + dg + db;
+                if (dr > FAR || dg > FAR || db > FAR) far++;
+            }
+            double diff = channels / (3.0 * pa.length);
+            diffTotal += diff;
+            farTotal += far;
+            if (diff > worstDiff) {
+                worstDiff = diff;
+                worstFrame = frame;
+                if (diffOut != null) worst = diffImage(pa, pb, width, height);
+            }
+        }
+
+        double meanDiff = diffTotal / frames;
+        double farPercent = 100.0 * farTotal / ((double) frames * width * height);
+        System.out.printf("%d frames, seed %d, %d band(s), scale %s%n", frames, seed, bands, scale);
+        System.out.printf("  java2d   %.3f ms/frame%n", javaNanos / 1e6 / frames);
+        System.out.printf("  software %.3f ms/frame%n", softNanos / 1e6 / frames);
+        if (busyFrames > 0) {
+            System.out.printf("  %d frames with %d+ particles: java2d %.3f, software %.3f ms/frame%n", busyFrames,
+                    BUSY_PARTICLES, busyJavaNanos / 1e6 / busyFrames, busySoftNanos / 1e6 / busyFrames);
+        } else {
+            System.out.printf("  no frame had %d+ particles, so particles went untested%n", BUSY_PARTICLES);
+        }
+        System.out.printf("  mean channel difference %.3f (worst frame %d: %.3f), pixels off by more than %d: %.3f%%%n",
+                meanDiff, worstFrame, worstDiff, FAR, farPercent);
+
+        if (worst != null) {
+            ImageIO.write(worst, "png", diffOut);
+            System.out.println("  worst frame written to " + diffOut);
+        }
+        boolean pass = meanDiff <= MAX_MEAN_DIFF && farPercent <= MAX_FAR_PIXELS && busyFrames > 0;
+        System.out.println(pass ? "PASS" : "FAIL");
+        if (!pass) System.exit(1);
+    }
+
+    // Reference on the left, software in the middle, differences (x8) on the right
+    private static BufferedImage diffImage(int[] pa, int[] pb, int width, int height) {
+        BufferedImage out = new BufferedImage(width * 3, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int p = pa[y * width + x], q = pb[y * width + x];
+                int d = Math.max(Math.abs((p >> 16 & 0xFF) - (q >> 16 & 0xFF)),
+                        Math.max(Math.abs((p >> 8 & 0xFF) - (q >> 8 & 0xFF)), Math.abs((p & 0xFF) - (q & 0xFF))));
+                out.setRGB(x, y, p);
+                out.setRGB(width + x, y, q);
+                out.setRGB(2 * width + x, y, Math.min(255, d * 8) << 16);
+            }
+        }
+        return out;
+    }
+}
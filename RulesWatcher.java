@@ -0,0 +1,88 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * RulesWatcher.java
+ * Keeps a GameRules instance in sync with a rules file on disk.
+ *
+ * A daemon thread watches the file's directory and re-parses the file when
+ * it changes. The new rules replace the old ones with a single volatile
+ * write; the game picks them up at the start of its next tick. A file that
+ * fails to parse is reported and the previous rules stay in force; if it
+ * is already broken at startup that means the defaults, and watching goes
+ * on so the fixed file is picked up.
+ */
+class RulesWatcher implements Closeable {
+    // Editors often write a file in several steps; wait for them to settle
+    static final long SETTLE_MS = 100;
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile GameRules current;
+
+    RulesWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        try {
+            current = GameRules.load(this.file);
+        } catch (IOException | IllegalArgumentException ex) {
+            current = GameRules.DEFAULTS;
+            System.err.println("Using default rules until " + this.file + " is fixed: " + ex.getMessage());
+        }
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::run, "rules-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    GameRules current() {
+        return current;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) changed = true;
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(SETTLE_MS);
+                    WatchKey more = watchService.poll();
+                    if (more != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // closed
+        }
+    }
+
+    private void reload() {
+        try {
+            current = GameRules.load(file);
+            System.out.println("Rules reloaded from " + file);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Keeping previous rules, " + file + " is invalid: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
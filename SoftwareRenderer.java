@@ -0,0 +1,325 @@
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SoftwareRenderer.java
+ * Renderer that rasterizes into the int[] behind a BufferedImage and hands
+ * the finished frame to Java2D with a single drawImage.
+ *
+ * Calls between begin() and end() only append to a display list. end()
+ * then runs the list with plain loops over the pixel array: no Color
+ * objects, no per-call pipeline validation, which is what makes hundreds of
+ * particles cheap. With more than one band the frame is split into
+ * horizontal bands that run the whole list in parallel, each clipped to its
+ * own rows, so no two threads ever touch the same pixel.
+ *
+ * The framebuffer is sized from the target's transform, so a scaled surface
+ * (ArcadeHost tiles, HiDPI screens) is rasterized at device resolution like
+ * Java2D would, not drawn small and resampled. Rotated or sheared targets
+ * are left to Java2DRenderer.
+ *
+ * Antialiasing approximates Java2D's coverage along the edges of circles,
+ * rounded corners and rects on fractional pixels; see RendererCompare for
+ * how close it gets.
+ */
+final class SoftwareRenderer implements Renderer {
+    // Below this many commands a frame isn't worth splitting
+    static final int MIN_PARALLEL_COMMANDS = 64;
+
+    private static final int RECT = 1;
+    private static final int CIRCLE = 2;
+    private static final int GRADIENT = 3;
+    // op, x, y, w, h, color, color2, corner rx, corner ry; geometry as float bits in device pixels
+    private static final int STRIDE = 9;
+
+    private static ExecutorService bandPool = null;
+
+    final int width, height;
+    private final int bands;
+    private BufferedImage image = null;
+    private int[] pixels;
+    private int fbWidth, fbHeight;
+    private float sx, sy;
+    private int[] list = new int[STRIDE * 512];
+    private int size = 0;
+    private boolean antialias;
+    private Graphics2D target;
+    private Java2DRenderer fallback = null;
+    private boolean passthrough;
+
+    /** width, height: the frame in user space. bands: how many threads rasterize a frame (1 = the calling thread only). */
+    SoftwareRenderer(int width, int height, int bands) {
+        this.width = width;
+        this.height = height;
+        this.bands = Math.max(1, bands);
+    }
+
+    @Override
+    public void begin(Graphics2D g, boolean antialias) {
+        target = g;
+        this.antialias = antialias;
+        size = 0;
+        AffineTransform t = g.getTransform();
+        passthrough = t.getShearX() != 0 || t.getShearY() != 0 || t.getScaleX() <= 0 || t.getScaleY() <= 0;
+        if (passthrough) {
+            if (fallback == null) fallback = new Java2DRenderer();
+            fallback.begin(g, antialias);
+            return;
+        }
+        sx = (float) t.getScaleX();
+        sy = (float) t.getScaleY();
+        int w = (int) Math.ceil(width * sx);
+        int h = (int) Math.ceil(height * sy);
+        if (image == null || w != fbWidth || h != fbHeight) {
+            fbWidth = w;
+            fbHeight = h;
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    @Override
+    public void fillRect(int x, int y, int w, int h, int argb) {
+        if (passthrough) {
+            fallback.fillRect(x, y, w, h, argb);
+            return;
+        }
+        add(RECT, x * sx, y * sy, w * sx, h * sy, argb, 0, 0, 0);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int size, int argb) {
+        if (passthrough) {
+            fallback.fillCircle(x, y, size, argb);
+            return;
+        }
+        add(CIRCLE, x * sx, y * sy, size * sx, size * sy, argb, 0, 0, 0);
+    }
+
+    @Override
+    public void fillGradient(int x, int y, int w, int h, int arc, int topArgb, int bottomArgb) {
+        if (passthrough) {
+            fallback.fillGradient(x, y, w, h, arc, topArgb, bottomArgb);
+            return;
+        }
+        float r = Math.min(arc / 2f, Math.min(w, h) / 2f);
+        add(GRADIENT, x * sx, y * sy, w * sx, h * sy, topArgb, bottomArgb, r * sx, r * sy);
+    }
+
+    private void add(int op, float x, float y, float w, float h, int c1, int c2, float rx, float ry) {
+        if (w <= 0 || h <= 0 || (c1 >>> 24 == 0 && (op != GRADIENT || c2 >>> 24 == 0))) return;
+        if (size + STRIDE > list.length) list = Arrays.copyOf(list, list.length * 2);
+        int[] l = list;
+        int i = size;
+        l[i] = op;
+        l[i + 1] = Float.floatToRawIntBits(x);
+        l[i + 2] = Float.floatToRawIntBits(y);
+        l[i + 3] = Float.floatToRawIntBits(w);
+        l[i + 4] = Float.floatToRawIntBits(h);
+        l[i + 5] = c1;
+        l[i + 6] = c2;
+        l[i + 7] = Float.floatToRawIntBits(rx);
+        l[i + 8] = Float.floatToRawIntBits(ry);
+        size += STRIDE;
+    }
+
+    @Override
+    public void end() {
+        if (passthrough) {
+            fallback.end();
+            target = null;
+            return;
+        }
+        int commands = size / STRIDE;
+        int n = Math.min(bands, fbHeight);
+        if (n == 1 || commands < MIN_PARALLEL_COMMANDS) {
+            raster(0, fbHeight);
+        } else {
+            ExecutorService pool = pool();
+            List<Future<?>> parts = new ArrayList<>(n - 1);
+            for (int b = 1; b < n; b++) {
+                final int y0 = fbHeight * b / n;
+                final int y1 = fbHeight * (b + 1) / n;
+                parts.add(pool.submit(() -> raster(y0, y1)));
+            }
+            raster(0, fbHeight / n);
+            try {
+                for (Future<?> f : parts) f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Rasterizer band failed", ex.getCause());
+            }
+        }
+        // The image is already in device pixels: place it without scaling
+        AffineTransform t = target.getTransform();
+        target.setTransform(AffineTransform.getTranslateInstance(Math.round(t.getTranslateX()), Math.round(t.getTranslateY())));
+        target.drawImage(image, 0, 0, null);
+        target.setTransform(t);
+        target = null;
+    }
+
+    private static synchronized ExecutorService pool() {
+        if (bandPool == null) {
+            bandPool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), r -> {
+                Thread t = new Thread(r, "raster-band");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return bandPool;
+    }
+
+    // Runs the whole display list, clipped to rows y0 (inclusive) to y1 (exclusive)
+    private void raster(int y0, int y1) {
+        int[] l = list;
+        for (int i = 0; i < size; i += STRIDE) {
+            float x = Float.intBitsToFloat(l[i + 1]);
+            float y = Float.intBitsToFloat(l[i + 2]);
+            float w = Float.intBitsToFloat(l[i + 3]);
+            float h = Float.intBitsToFloat(l[i + 4]);
+            switch (l[i]) {
+                case RECT:
+                    rect(y0, y1, x, y, w, h, l[i + 5]);
+                    break;
+                case CIRCLE:
+                    circle(y0, y1, x, y, w, h, l[i + 5]);
+                    break;
+                case GRADIENT:
+                    gradient(y0, y1, x, y, w, h, Float.intBitsToFloat(l[i + 7]), Float.intBitsToFloat(l[i + 8]),
+                            l[i + 5], l[i + 6]);
+                    break;
+            }
+        }
+    }
+
+    private void rect(int y0, int y1, float x, float y, float w, float h, int argb) {
+        int ya = Math.max(y0, firstRow(y)), yb = Math.min(y1, endRow(y + h));
+        int alpha = alpha256(argb >>> 24);
+        int rgb = argb & 0xFFFFFF;
+        for (int py = ya; py < yb; py++) {
+            span(py * fbWidth, x, x + w, rgb, (int) (alpha * rowCoverage(py, y, y + h)));
+        }
+    }
+
+    private void circle(int y0, int y1, float x, float y, float w, float h, int argb) {
+        float rx = w / 2, ry = h / 2;
+        float cx = x + rx, cy = y + ry;
+        int ya = Math.max(y0, (int) Math.floor(y)), yb = Math.min(y1, (int) Math.ceil(y + h));
+        int alpha = alpha256(argb >>> 24);
+        int rgb = argb & 0xFFFFFF;
+        for (int py = ya; py < yb; py++) {
+            float dy = py + 0.5f - cy;
+            float ny = dy / ry;
+            float q = 1 - ny * ny;
+            if (antialias) {
+                // Rows the edge only grazes get partial coverage too
+                float vertical = Math.min(1f, ry + 0.5f - Math.abs(dy));
+                if (vertical <= 0) continue;
+                float half = q > 0 ? rx * (float) Math.sqrt(q) : 0;
+                if (half == 0 && vertical < 1) half = Math.min(rx, 0.5f);
+                span(py * fbWidth, cx - half, cx + half, rgb, (int) (alpha * vertical));
+            } else {
+                if (q < 0) continue;
+                float half = rx * (float) Math.sqrt(q);
+                span(py * fbWidth, cx - half, cx + half, rgb, alpha);
+            }
+        }
+    }
+
+    private void gradient(int y0, int y1, float x, float y, float w, float h, float rx, float ry, int top, int bottom) {
+        int ya = Math.max(y0, firstRow(y)), yb = Math.min(y1, endRow(y + h));
+        for (int py = ya; py < yb; py++) {
+            float t = Math.max(0f, Math.min(1f, (py + 0.5f - y) / h));
+            int argb = lerp(top, bottom, t);
+            float inset = 0;
+            if (rx > 0 && ry > 0) {
+                float cy = py + 0.5f;
+                float dy = cy < y + ry ? y + ry - cy : cy > y + h - ry ? cy - (y + h - ry) : 0;
+                if (dy > 0) {
+                    float ny = Math.min(1f, dy / ry);
+                    inset = rx * (1 - (float) Math.sqrt(1 - ny * ny));
+                }
+            }
+            span(py * fbWidth, x + inset, x + w - inset, argb & 0xFFFFFF,
+                    (int) (alpha256(argb >>> 24) * rowCoverage(py, y, y + h)));
+        }
+    }
+
+    // Rows touched by an edge at top/bottom: any overlap with antialiasing, pixel centres without
+    private int firstRow(float top) {
+        return antialias ? (int) Math.floor(top) : (int) Math.ceil(top - 0.5f);
+    }
+
+    private int endRow(float bottom) {
+        return antialias ? (int) Math.ceil(bottom) : (int) Math.ceil(bottom - 0.5f);
+    }
+
+    private float rowCoverage(int py, float top, float bottom) {
+        return antialias ? Math.min(py + 1, bottom) - Math.max(py, top) : 1f;
+    }
+
+    // Fills [xl, xr) on one row; with antialiasing the end pixels are weighted by how much of them is covered
+    private void span(int row, float xl, float xr, int rgb, int alpha) {
+        if (xr <= xl || alpha <= 0) return;
+        if (!antialias) {
+            int xa = Math.max(0, (int) Math.ceil(xl - 0.5f));
+            int xb = Math.min(fbWidth, (int) Math.ceil(xr - 0.5f));
+            fill(row, xa, xb, rgb, alpha);
+            return;
+        }
+        int fl = (int) Math.floor(xl), fr = (int) Math.floor(xr);
+        if (fl == fr) {
+            plot(row, fl, rgb, (int) (alpha * (xr - xl)));
+            return;
+        }
+        plot(row, fl, rgb, (int) (alpha * (fl + 1 - xl)));
+        fill(row, Math.max(0, fl + 1), Math.min(fbWidth, fr), rgb, alpha);
+        plot(row, fr, rgb, (int) (alpha * (xr - fr)));
+    }
+
+    private void fill(int row, int xa, int xb, int rgb, int alpha) {
+        if (xa >= xb) return;
+        if (alpha >= 256) {
+            Arrays.fill(pixels, row + xa, row + xb, rgb);
+            return;
+        }
+        for (int p = row + xa; p < row + xb; p++) {
+            pixels[p] = blend(pixels[p], rgb, alpha);
+        }
+    }
+
+    private void plot(int row, int x, int rgb, int alpha) {
+        if (x < 0 || x >= fbWidth || alpha <= 0) return;
+        pixels[row + x] = alpha >= 256 ? rgb : blend(pixels[row + x], rgb, alpha);
+    }
+
+    // Source over an opaque destination; alpha 0..256
+    static int blend(int dst, int rgb, int alpha) {
+        int inv = 256 - alpha;
+        int rb = ((rgb & 0xFF00FF) * alpha + (dst & 0xFF00FF) * inv) >>> 8 & 0xFF00FF;
+        int g = ((rgb & 0x00FF00) * alpha + (dst & 0x00FF00) * inv) >>> 8 & 0x00FF00;
+        return rb | g;
+    }
+
+    private static int alpha256(int a) {
+        return a + (a >>> 7);
+    }
+
+    private static int lerp(int c1, int c2, float t) {
+        int a = Math.round((c1 >>> 24) + ((c2 >>> 24) - (c1 >>> 24)) * t);
+        int r = Math.round((c1 >> 16 & 0xFF) + ((c2 >> 16 & 0xFF) - (c1 >> 16 & 0xFF)) * t);
+        int g = Math.round((c1 >> 8 & 0xFF) + ((c2 >> 8 & 0xFF) - (c1 >> 8 & 0xFF)) * t);
+        int b = Math.round((c1 & 0xFF) + ((c2 & 0xFF) - (c1 & 0xFF)) * t);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+}
@@ -0,0 +1,157 @@
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SpectatorBench.java
+ * Runs a live match with a spectator feed, attaches loopback viewers that
+ * decode the stream, and reports bytes per second per viewer for each rate.
+ *
+ * Half of the viewers connect up front, the rest join during the first half
+ * of the run so the keyframe path for late joiners is exercised too. Every
+ * decoded packet is compared field by field with the frame the feed
+ * encoded for that tick; mismatches count as errors.
+ *
+ * Usage: java SpectatorBench [viewers] [seconds]
+ */
+public class SpectatorBench {
+    static final int[] RATE_DIVISORS = { 1, 2, 4 };
+
+    // What the feed encoded, by tick
+    static final Map<Integer, SpectatorEncoder.Frame> SENT = new ConcurrentHashMap<>();
+
+    static class Viewer {
+        final int divisor;
+        final long joinAt;
+        SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        final SpectatorEncoder.Frame state = new SpectatorEncoder.Frame();
+        long connectedAt;
+        long bytes;
+        int packets;
+        int keyframes;
+        int lastTick = -1;
+        int errors;
+
+        Viewer(int divisor, long joinAt) {
+            this.divisor = divisor;
+            this.joinAt = joinAt;
+        }
+
+        void connect(Selector selector, int port) throws IOException {
+            channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+            channel.write(ByteBuffer.wrap(new byte[] { (byte) divisor }));
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, this);
+            connectedAt = System.nanoTime();
+        }
+
+        void read() throws IOException {
+            int n = channel.read(in);
+            if (n < 0) throw new IOException("feed closed");
+            bytes += n;
+            in.flip();
+            while (in.remaining() >= 2) {
+                int len = in.getShort(in.position()) & 0xFFFF;
+                if (in.remaining() < 2 + len) break;
+                ByteBuffer payload = in.duplicate();
+                payload.position(in.position() + 2).limit(in.position() + 2 + len);
+                in.position(in.position() + 2 + len);
+                try {
+                    int kind = SpectatorEncoder.decode(payload, state);
+                    if (kind == SpectatorEncoder.KEYFRAME) keyframes++;
+                    else if (lastTick < 0 || state.tick <= lastTick) errors++; // delta before keyframe, or out of order
+                    SpectatorEncoder.Frame sent = SENT.get(state.tick);
+                    if (sent == null || !state.sameAs(sent)) errors++;
+                    lastTick = state.tick;
+                    packets++;
+                } catch (RuntimeException ex) {
+                    errors++;
+                }
+            }
+            in.compact();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int viewerCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        SpectatorFeed feed = new SpectatorFeed(0);
+        feed.onPublish = f -> {
+            SpectatorEncoder.Frame copy = new SpectatorEncoder.Frame();
+            copy.copyFrom(f);
+            SENT.put(copy.tick, copy);
+        };
+        final EnhancedPongGame[] holder = new EnhancedPongGame[1];
+        SwingUtilities.invokeAndWait(() -> {
+            holder[0] = new EnhancedPongGame();
+            holder[0].setSpectatorFeed(feed);
+            holder[0].startGame();
+        });
+
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        List<Viewer> pending = new ArrayList<>();
+        List<Viewer> viewers = new ArrayList<>();
+        for (int i = 0; i < viewerCount; i++) {
+            long joinAt = i < viewerCount / 2 ? start : start + (end - start) / 2 * i / viewerCount;
+            Viewer v = new Viewer(RATE_DIVISORS[i % RATE_DIVISORS.length], joinAt);
+            pending.add(v);
+            viewers.add(v);
+        }
+
+        try (Selector selector = Selector.open()) {
+            while (System.nanoTime() < end) {
+                long now = System.nanoTime();
+                for (int i = pending.size() - 1; i >= 0; i--) {
+                    if (pending.get(i).joinAt <= now) {
+                        pending.remove(i).connect(selector, feed.getPort());
+                    }
+                }
+                selector.select(5);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    ((Viewer) key.attachment()).read();
+                }
+                selector.selectedKeys().clear();
+            }
+        }
+        long stop = System.nanoTime();
+
+        System.out.printf("%d viewers, %d s, feed sent %d bytes total%n", viewerCount, seconds, feed.getBytesSent());
+        for (int divisor : RATE_DIVISORS) {
+            double totalRate = 0;
+            double minRate = Double.MAX_VALUE;
+            double maxRate = 0;
+            int count = 0;
+            int packets = 0;
+            int keyframes = 0;
+            int errors = 0;
+            for (Viewer v : viewers) {
+                if (v.divisor != divisor || v.channel == null) continue;
+                double rate = v.bytes / ((stop - v.connectedAt) / 1e9);
+                totalRate += rate;
+                minRate = Math.min(minRate, rate);
+                maxRate = Math.max(maxRate, rate);
+                packets += v.packets;
+                keyframes += v.keyframes;
+                errors += v.errors;
+                count++;
+            }
+            if (count == 0) continue;
+            System.out.printf("rate 1/%d: %3d viewers, %8.1f B/s avg (min %.1f, max %.1f), %d packets, %d keyframes, %d errors%n",
+                    divisor, count, totalRate / count, minRate, maxRate, packets, keyframes, errors);
+        }
+
+        feed.close();
+        System.exit(0);
+    }
+}
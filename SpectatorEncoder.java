@@ -0,0 +1,365 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * SpectatorEncoder.java
+ * Encodes one tick of game state as a bit-packed delta against the previously
+ * encoded tick, or as a self-contained keyframe for viewers that join late.
+ *
+ * Packet layout:
+ *  - u16 : payload length
+ *  - u8  : kind (KEYFRAME / DELTA)
+ *  - u32 : tick
+ *  - bits: fields in the order of encodeFields(), each prefixed by a
+ *          "changed" bit so untouched fields cost a single bit
+ *
+ * A keyframe is simply a delta against an all-zero frame, so the decoder
+ * resets its state and applies it the same way.
+ */
+class SpectatorEncoder {
+    static final int KEYFRAME = 1;
+    static final int DELTA = 2;
+
+    static final int MAX_EXTRA_BALLS = 255;
+    static final int MAX_POWER_UPS = 255;
+    static final int TIMER_COUNT = 5;
+
+    // Coordinates are offset so balls that are slightly off-screen still fit
+    static final int COORD_OFFSET = 64;
+    static final int COORD_BITS = 11;
+    static final int SMALL_DELTA_BITS = 5;
+    static final int TIMER_BITS = 10; // deciseconds remaining
+
+    /** Plain snapshot of everything a spectator needs to draw a tick. */
+    static class Frame {
+        int tick;
+        int ballX, ballY;
+        int playerY, aiY;
+        int playerPaddleHeight, aiPaddleHeight;
+        int playerScore, aiScore;
+        int abilityCharge;
+        int personality;
+        int flags;
+
+        int extraCount;
+        int[] extraX = new int[8];
+        int[] extraY = new int[8];
+        int[] extraRgb = new int[8];
+
+        int powerCount;
+        int[] powerX = new int[4];
+        int[] powerY = new int[4];
+        int[] powerType = new int[4];
+
+        final int[] timers = new int[TIMER_COUNT];
+
+        static final int FLAG_RUNNING = 1;
+        static final int FLAG_PAUSED = 2;
+        static final int FLAG_STARTED = 4;
+        static final int FLAG_ABILITY = 8;
+
+        void setExtraCount(int count) {
+            count = Math.min(count, MAX_EXTRA_BALLS);
+            if (count > extraX.length) {
+                int n = Math.max(count, extraX.length * 2);
+                extraX = Arrays.copyOf(extraX, n);
+                extraY = Arrays.copyOf(extraY, n);
+                extraRgb = Arrays.copyOf(extraRgb, n);
+            }
+            // Slots past the old count must read as zero when used as a delta base
+            for (int i = extraCount; i < count; i++) {
+                extraX[i] = 0;
+                extraY[i] = 0;
+                extraRgb[i] = 0;
+            }
+            extraCount = count;
+        }
+
+        void setPowerCount(int count) {
+            count = Math.min(count, MAX_POWER_UPS);
+            if (count > powerX.length) {
+                int n = Math.max(count, powerX.length * 2);
+                powerX = Arrays.copyOf(powerX, n);
+                powerY = Arrays.copyOf(powerY, n);
+                powerType = Arrays.copyOf(powerType, n);
+            }
+            for (int i = powerCount; i < count; i++) {
+                powerX[i] = 0;
+                powerY[i] = 0;
+                powerType[i] = 0;
+            }
+            powerCount = count;
+        }
+
+        void reset() {
+            tick = 0;
+            ballX = ballY = playerY = aiY = 0;
+            playerPaddleHeight = aiPaddleHeight = 0;
+            playerScore = aiScore = abilityCharge = personality = flags = 0;
+            extraCount = 0;
+            powerCount = 0;
+            Arrays.fill(timers, 0);
+        }
+
+        /** True if o holds the same tick as this, ignoring extra ball and power-up slots past their counts. */
+        boolean sameAs(Frame o) {
+            if (tick != o.tick || ballX != o.ballX || ballY != o.ballY || playerY != o.playerY || aiY != o.aiY
+                    || playerPaddleHeight != o.playerPaddleHeight || aiPaddleHeight != o.aiPaddleHeight
+                    || playerScore != o.playerScore || aiScore != o.aiScore || abilityCharge != o.abilityCharge
+                    || personality != o.personality || flags != o.flags || extraCount != o.extraCount
+                    || powerCount != o.powerCount
+                    || !Arrays.equals(timers, o.timers)) {
+                return false;
+            }
+            for (int i = 0; i < extraCount; i++) {
+                if (extraX[i] != o.extraX[i] || extraY[i] != o.extraY[i] || extraRgb[i] != o.extraRgb[i]) return false;
+            }
+            for (int i = 0; i < powerCount; i++) {
+                if (powerX[i] != o.powerX[i] || powerY[i] != o.powerY[i] || powerType[i] != o.powerType[i]) return false;
+            }
+            return true;
+        }
+
+        void copyFrom(Frame o) {
+            tick = o.tick;
+            ballX = o.ballX; ballY = o.ballY;
+            playerY = o.playerY; aiY = o.aiY;
+            playerPaddleHeight = o.playerPaddleHeight; aiPaddleHeight = o.aiPaddleHeight;
+            playerScore = o.playerScore; aiScore = o.aiScore;
+            abilityCharge = o.abilityCharge;
+            personality = o.personality;
+            flags = o.flags;
+            extraCount = 0;
+            setExtraCount(o.extraCount);
+            System.arraycopy(o.extraX, 0, extraX, 0, o.extraCount);
+            System.arraycopy(o.extraY, 0, extraY, 0, o.extraCount);
+            System.arraycopy(o.extraRgb, 0, extraRgb, 0, o.extraCount);
+            powerCount = 0;
+            setPowerCount(o.powerCount);
+            System.arraycopy(o.powerX, 0, powerX, 0, o.powerCount);
+            System.arraycopy(o.powerY, 0, powerY, 0, o.powerCount);
+            System.arraycopy(o.powerType, 0, powerType, 0, o.powerCount);
+            System.arraycopy(o.timers, 0, timers, 0, TIMER_COUNT);
+        }
+    }
+
+    /** Clamps a screen coordinate into the encodable range. */
+    static int coord(int v) {
+        return Math.max(-COORD_OFFSET, Math.min((1 << COORD_BITS) - 1 - COORD_OFFSET, v));
+    }
+
+    /** Converts an effect end time into clamped deciseconds remaining. */
+    static int timer(long endTime, long now) {
+        if (now >= endTime) return 0;
+        return (int) Math.min((1 << TIMER_BITS) - 1, (endTime - now + 99) / 100);
+    }
+
+    private final Frame previous = new Frame();
+    private final Frame empty = new Frame();
+    private final BitWriter writer = new BitWriter(4096);
+
+    ByteBuffer encodeDelta(Frame current) {
+        return encode(DELTA, previous, current);
+    }
+
+    ByteBuffer encodeKeyframe(Frame current) {
+        return encode(KEYFRAME, empty, current);
+    }
+
+    /** Makes current the base for the next delta. */
+    void advance(Frame current) {
+        previous.copyFrom(current);
+    }
+
+    private ByteBuffer encode(int kind, Frame base, Frame cur) {
+        writer.reset();
+        encodeFields(writer, base, cur);
+        int payload = 1 + 4 + writer.length();
+        ByteBuffer out = ByteBuffer.allocate(2 + payload);
+        out.putShort((short) payload);
+        out.put((byte) kind);
+        out.putInt(cur.tick);
+        out.put(writer.buffer(), 0, writer.length());
+        out.flip();
+        return out;
+    }
+
+    private static void encodeFields(BitWriter w, Frame b, Frame c) {
+        writeCoord(w, b.ballX, c.ballX);
+        writeCoord(w, b.ballY, c.ballY);
+        writeCoord(w, b.playerY, c.playerY);
+        writeCoord(w, b.aiY, c.aiY);
+        writeField(w, b.playerPaddleHeight, c.playerPaddleHeight, 9);
+        writeField(w, b.aiPaddleHeight, c.aiPaddleHeight, 9);
+        writeField(w, b.playerScore, c.playerScore, 16);
+        writeField(w, b.aiScore, c.aiScore, 16);
+        writeField(w, b.abilityCharge, c.abilityCharge, 7);
+        writeField(w, b.personality, c.personality, 2);
+        writeField(w, b.flags, c.flags, 4);
+
+        // Extra balls: only slots whose position or colour moved cost more than a few bits
+        writeField(w, b.extraCount, c.extraCount, 8);
+        for (int i = 0; i < c.extraCount; i++) {
+            boolean known = i < b.extraCount;
+            writeCoord(w, known ? b.extraX[i] : 0, c.extraX[i]);
+            writeCoord(w, known ? b.extraY[i] : 0, c.extraY[i]);
+            writeField(w, known ? b.extraRgb[i] : 0, c.extraRgb[i], 24);
+        }
+
+        writeField(w, b.powerCount, c.powerCount, 8);
+        for (int i = 0; i < c.powerCount; i++) {
+            boolean known = i < b.powerCount;
+            writeCoord(w, known ? b.powerX[i] : 0, c.powerX[i]);
+            writeCoord(w, known ? b.powerY[i] : 0, c.powerY[i]);
+            writeField(w, known ? b.powerType[i] : 0, c.powerType[i], 3);
+        }
+
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            writeField(w, b.timers[i], c.timers[i], TIMER_BITS);
+        }
+    }
+
+    private static void writeField(BitWriter w, int base, int value, int bits) {
+        if (base == value) {
+            w.write(0, 1);
+        } else {
+            w.write(1, 1);
+            w.write(value, bits);
+        }
+    }
+
+    // 0 = unchanged, 10 = small signed step, 11 = absolute value
+    private static void writeCoord(BitWriter w, int base, int value) {
+        int d = value - base;
+        if (d == 0) {
+            w.write(0, 1);
+        } else if (d >= -(1 << (SMALL_DELTA_BITS - 1)) && d < (1 << (SMALL_DELTA_BITS - 1))) {
+            w.write(0b10, 2);
+            w.write(d, SMALL_DELTA_BITS);
+        } else {
+            w.write(0b11, 2);
+            w.write(value + COORD_OFFSET, COORD_BITS);
+        }
+    }
+
+    // ------------ Decoding ------------
+
+    /**
+     * Applies one packet payload (everything after the length prefix) to state.
+     * Returns the packet kind.
+     */
+    static int decode(ByteBuffer payload, Frame state) {
+        int kind = payload.get();
+        if (kind == KEYFRAME) {
+            state.reset();
+        } else if (kind != DELTA) {
+            throw new IllegalArgumentException("Unknown spectator packet kind " + kind);
+        }
+        state.tick = payload.getInt();
+        BitReader r = new BitReader(payload);
+
+        state.ballX = readCoord(r, state.ballX);
+        state.ballY = readCoord(r, state.ballY);
+        state.playerY = readCoord(r, state.playerY);
+        state.aiY = readCoord(r, state.aiY);
+        state.playerPaddleHeight = readField(r, state.playerPaddleHeight, 9);
+        state.aiPaddleHeight = readField(r, state.aiPaddleHeight, 9);
+        state.playerScore = readField(r, state.playerScore, 16);
+        state.aiScore = readField(r, state.aiScore, 16);
+        state.abilityCharge = readField(r, state.abilityCharge, 7);
+        state.personality = readField(r, state.personality, 2);
+        state.flags = readField(r, state.flags, 4);
+
+        state.setExtraCount(readField(r, state.extraCount, 8));
+        for (int i = 0; i < state.extraCount; i++) {
+            state.extraX[i] = readCoord(r, state.extraX[i]);
+            state.extraY[i] = readCoord(r, state.extraY[i]);
+            state.extraRgb[i] = readField(r, state.extraRgb[i], 24);
+        }
+
+        state.setPowerCount(readField(r, state.powerCount, 8));
+        for (int i = 0; i < state.powerCount; i++) {
+            state.powerX[i] = readCoord(r, state.powerX[i]);
+            state.powerY[i] = readCoord(r, state.powerY[i]);
+            state.powerType[i] = readField(r, state.powerType[i], 3);
+        }
+
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            state.timers[i] = readField(r, state.timers[i], TIMER_BITS);
+        }
+        return kind;
+    }
+
+    private static int readField(BitReader r, int base, int bits) {
+        return r.read(1) == 0 ? base : r.read(bits);
+    }
+
+    private static int readCoord(BitReader r, int base) {
+        if (r.read(1) == 0) return base;
+        if (r.read(1) == 0) {
+            int d = r.read(SMALL_DELTA_BITS);
+            return base + ((d << (32 - SMALL_DELTA_BITS)) >> (32 - SMALL_DELTA_BITS));
+        }
+        return r.read(COORD_BITS) - COORD_OFFSET;
+    }
+
+    // ------------ Bit packing ------------
+
+    static class BitWriter {
+        private final byte[] buf;
+        private int pos;
+        private long acc;
+        private int accBits;
+
+        BitWriter(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void reset() {
+            pos = 0;
+            acc = 0;
+            accBits = 0;
+        }
+
+        void write(int value, int bits) {
+            acc = (acc << bits) | (value & ((1L << bits) - 1));
+            accBits += bits;
+            while (accBits >= 8) {
+                accBits -= 8;
+                buf[pos++] = (byte) (acc >>> accBits);
+            }
+        }
+
+        /** Length in bytes, counting a trailing partial byte (padded with zeros). */
+        int length() {
+            if (accBits > 0) {
+                buf[pos] = (byte) (acc << (8 - accBits));
+                return pos + 1;
+            }
+            return pos;
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    static class BitReader {
+        private final ByteBuffer in;
+        private long acc;
+        private int accBits;
+
+        BitReader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        int read(int bits) {
+            while (accBits < bits) {
+                acc = (acc << 8) | (in.get() & 0xFF);
+                accBits += 8;
+            }
+            accBits -= bits;
+            return (int) ((acc >>> accBits) & ((1L << bits) - 1));
+        }
+    }
+}
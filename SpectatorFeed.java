@@ -0,0 +1,291 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * SpectatorFeed.java
+ * Mirrors a live match to any number of TCP viewers.
+ *
+ * The game thread captures the state once per tick and encodes it once per
+ * rate tier; a single NIO thread then fans each packet out to every viewer
+ * of that tier without re-encoding.
+ *
+ * Protocol: a viewer connects and sends one byte, its rate divisor
+ * (1 = every tick, 2 = every other tick, ... up to MAX_RATE_DIVISOR).
+ * It then receives a keyframe followed by deltas, see SpectatorEncoder.
+ *
+ * If the I/O thread fails the feed stops: publish() becomes a no-op, the
+ * failure is reported once on stderr and thrown again by close().
+ */
+class SpectatorFeed implements Closeable {
+    static final int MAX_RATE_DIVISOR = 8;
+    // A viewer whose unsent backlog grows past this is dropped back to a keyframe
+    static final int MAX_BACKLOG_BYTES = 64 * 1024;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread ioThread;
+    private final Tier[] tiers = new Tier[MAX_RATE_DIVISOR + 1];
+    private final ConcurrentLinkedQueue<Packet> outbound = new ConcurrentLinkedQueue<>();
+    private final SpectatorEncoder.Frame current = new SpectatorEncoder.Frame();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private volatile boolean open = true;
+    private volatile IOException failure = null;
+    private int tick = 0;
+
+    // Sees every frame as published, before encoding (SpectatorBench checks decoding against it)
+    volatile Consumer<SpectatorEncoder.Frame> onPublish = null;
+
+    class Tier {
+        final int divisor;
+        final SpectatorEncoder encoder = new SpectatorEncoder();
+        final List<Subscriber> subscribers = new ArrayList<>(); // I/O thread only
+        volatile int subscriberCount = 0;
+        final AtomicBoolean keyframeWanted = new AtomicBoolean();
+
+        Tier(int divisor) {
+            this.divisor = divisor;
+        }
+    }
+
+    static class Packet {
+        final Tier tier;
+        final boolean keyframe;
+        final ByteBuffer data;
+
+        Packet(Tier tier, boolean keyframe, ByteBuffer data) {
+            this.tier = tier;
+            this.keyframe = keyframe;
+            this.data = data;
+        }
+    }
+
+    class Subscriber {
+        final SocketChannel channel;
+        final SelectionKey key;
+        Tier tier = null; // set once the viewer has sent its rate byte
+        boolean waitingForKeyframe = true;
+        final ArrayDeque<ByteBuffer> backlog = new ArrayDeque<>();
+        int backlogBytes = 0;
+        final ByteBuffer readBuf = ByteBuffer.allocate(16);
+
+        Subscriber(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+
+        void read() throws IOException {
+            readBuf.clear();
+            int n = channel.read(readBuf);
+            if (n < 0) throw new EOFException();
+            if (n == 0 || tier != null) return; // anything after the rate byte is ignored
+            int divisor = Math.max(1, Math.min(MAX_RATE_DIVISOR, readBuf.get(0)));
+            tier = tiers[divisor];
+            tier.subscribers.add(this);
+            tier.subscriberCount = tier.subscribers.size();
+            tier.keyframeWanted.set(true);
+        }
+
+        void send(ByteBuffer data) throws IOException {
+            if (backlog.isEmpty()) {
+                bytesSent.addAndGet(channel.write(data));
+                if (!data.hasRemaining()) return;
+            }
+            backlog.add(data);
+            backlogBytes += data.remaining();
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            if (backlogBytes > MAX_BACKLOG_BYTES) resync();
+        }
+
+        void flush() throws IOException {
+            ByteBuffer head;
+            while ((head = backlog.peek()) != null) {
+                int n = channel.write(head);
+                bytesSent.addAndGet(n);
+                backlogBytes -= n;
+                if (head.hasRemaining()) return;
+                backlog.poll();
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+
+        // Too slow to keep up: discard queued deltas and restart from the next keyframe
+        private void resync() {
+            ByteBuffer head = backlog.poll();
+            backlog.clear();
+            backlogBytes = 0;
+            if (head != null && head.position() > 0) {
+                backlog.add(head); // partially written, must finish to keep the framing intact
+                backlogBytes = head.remaining();
+            }
+            waitingForKeyframe = true;
+            tier.keyframeWanted.set(true);
+        }
+    }
+
+    SpectatorFeed(int port) throws IOException {
+        for (int d = 1; d <= MAX_RATE_DIVISOR; d++) {
+            tiers[d] = new Tier(d);
+        }
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        ioThread = new Thread(this::run, "spectator-feed");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /** Why the feed stopped, or null while it is running. */
+    IOException getFailure() {
+        return failure;
+    }
+
+    int getSubscriberCount() {
+        int n = 0;
+        for (int d = 1; d <= MAX_RATE_DIVISOR; d++) {
+            n += tiers[d].subscriberCount;
+        }
+        return n;
+    }
+
+    /** Called on the game thread once per tick. Never blocks on viewers. */
+    void publish(EnhancedPongGame game) {
+        if (failure != null) return;
+        tick++;
+        boolean captured = false;
+        for (int d = 1; d <= MAX_RATE_DIVISOR; d++) {
+            Tier tier = tiers[d];
+            if (tier.subscriberCount == 0 || tick % d != 0) continue;
+            if (!captured) {
+                game.captureSpectatorFrame(current);
+                current.tick = tick;
+                captured = true;
+                Consumer<SpectatorEncoder.Frame> tap = onPublish;
+                if (tap != null) tap.accept(current);
+            }
+            // The delta is queued first: a viewer waiting for this tick's keyframe
+            // skips it, and must never see it after the keyframe has been applied
+            outbound.add(new Packet(tier, false, tier.encoder.encodeDelta(current)));
+            if (tier.keyframeWanted.getAndSet(false)) {
+                outbound.add(new Packet(tier, true, tier.encoder.encodeKeyframe(current)));
+            }
+            tier.encoder.advance(current);
+        }
+        if (captured) selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (open) {
+                selector.select();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Subscriber s = (Subscriber) key.attachment();
+                    try {
+                        if (key.isReadable()) s.read();
+                        if (key.isValid() && key.isWritable()) s.flush();
+                    } catch (IOException ex) {
+                        drop(s);
+                    }
+                }
+
+                Packet p;
+                while ((p = outbound.poll()) != null) {
+                    deliver(p);
+                }
+            }
+        } catch (IOException ex) {
+            if (open) fail(ex);
+        } catch (ClosedSelectorException ex) {
+            if (open) fail(new IOException("selector closed", ex));
+        }
+    }
+
+    private void fail(IOException ex) {
+        failure = ex;
+        System.err.println("Spectator feed on port " + getPort() + " stopped: " + ex);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = server.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            new Subscriber(ch);
+        }
+    }
+
+    private void deliver(Packet p) {
+        List<Subscriber> subs = p.tier.subscribers;
+        for (int i = subs.size() - 1; i >= 0; i--) {
+            Subscriber s = subs.get(i);
+            if (p.keyframe != s.waitingForKeyframe) continue;
+            s.waitingForKeyframe = false;
+            try {
+                s.send(p.data.duplicate());
+            } catch (IOException ex) {
+                drop(s);
+            }
+        }
+    }
+
+    private void drop(Subscriber s) {
+        s.key.cancel();
+        try {
+            s.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (s.tier != null) {
+            s.tier.subscribers.remove(s);
+            s.tier.subscriberCount = s.tier.subscribers.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        selector.wakeup();
+        try {
+            ioThread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        if (failure != null) throw failure;
+    }
+}
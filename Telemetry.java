@@ -0,0 +1,192 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Telemetry.java
+ * Gameplay event log for one match: fixed-size binary records, written in
+ * batches by a background thread.
+ *
+ * The tick appends records to a buffer taken from a small pool. Full
+ * buffers, and partly filled ones once a second, go to the writer thread
+ * through a lock-free queue and come back to the pool once written. If
+ * the writer falls so far behind that the pool is empty, events are
+ * dropped and counted; the tick never waits on the disk.
+ *
+ * File layout: a 16-byte header (MAGIC, record size, version) followed by
+ * RECORD_SIZE-byte big-endian records:
+ *
+ *   0  u8  type       HIT, RALLY, POWER_SPAWN, POWER_PICKUP or AI_SWITCH
+ *   1  u8  side       SIDE_PLAYER, SIDE_AI or SIDE_NONE
+ *   2  u16 code       hit number, rally hits, power type or personality
+ *   4  i32 rally      rally number within the match
+ *   8  i64 time       match clock, ms
+ *  16  f32 a, b, c    type-specific, see the record methods
+ *  28  i32 d          type-specific
+ *
+ * Only one thread may record; see TelemetryAnalyzer for reading.
+ */
+final class Telemetry implements Closeable {
+    static final byte[] MAGIC = "PONGTLM1".getBytes(StandardCharsets.US_ASCII);
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 32;
+    static final int VERSION = 1;
+
+    static final int HIT = 1;
+    static final int RALLY = 2;
+    static final int POWER_SPAWN = 3;
+    static final int POWER_PICKUP = 4;
+    static final int AI_SWITCH = 5;
+
+    static final int SIDE_PLAYER = 0;
+    static final int SIDE_AI = 1;
+    static final int SIDE_NONE = 255;
+
+    static final int BUFFER_RECORDS = 2048; // 64 KB per buffer
+    static final int POOL_SIZE = 8;
+    static final long HANDOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final FileChannel channel;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> full = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean open = true;
+    private volatile IOException failure = null;
+
+    // Recording thread only
+    private ByteBuffer current;
+    private long lastHandoff = System.nanoTime();
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    Telemetry(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).putInt(RECORD_SIZE).putInt(VERSION).flip();
+        while (header.hasRemaining()) channel.write(header);
+
+        for (int i = 0; i < POOL_SIZE; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE));
+        }
+        current = free.poll();
+        writer = new Thread(this::drain, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Ball hit a paddle. a = normalized offset from the paddle centre (-1..1), b = speed after, c = speed before. */
+    void hit(int side, int hitNumber, int rally, long time, double normalized, double speedAfter, double speedBefore) {
+        record(HIT, side, hitNumber, rally, time, (float) normalized, (float) speedAfter, (float) speedBefore, 0);
+    }
+
+    /** Point scored by side. a = rally length in ms, b = fastest ball speed of the rally. */
+    void rally(int side, int hits, int rally, long time, long durationMs, double maxSpeed) {
+        record(RALLY, side, hits, rally, time, durationMs, (float) maxSpeed, 0, 0);
+    }
+
+    /** a, b = position. */
+    void powerSpawn(int type, int rally, long time, int x, int y) {
+        record(POWER_SPAWN, SIDE_NONE, type, rally, time, x, y, 0, 0);
+    }
+
+    /** a, b = position. */
+    void powerPickup(int side, int type, int rally, long time, int x, int y) {
+        record(POWER_PICKUP, side, type, rally, time, x, y, 0, 0);
+    }
+
+    /** code = new personality, d = previous one, a = player score minus AI score. */
+    void aiSwitch(int personality, int previous, int rally, long time, int scoreDiff) {
+        record(AI_SWITCH, SIDE_NONE, personality, rally, time, scoreDiff, 0, 0, previous);
+    }
+
+    private void record(int type, int side, int code, int rally, long time, float a, float b, float c, int d) {
+        if (current == null || !current.hasRemaining()) {
+            handoff();
+            if (current == null) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        ByteBuffer r = current;
+        r.put((byte) type).put((byte) side).putShort((short) code).putInt(rally).putLong(time)
+                .putFloat(a).putFloat(b).putFloat(c).putInt(d);
+        recorded.incrementAndGet();
+    }
+
+    /** Called by the recording thread once per tick: passes a partly filled buffer on once a second. */
+    void endTick() {
+        if (current != null && current.position() > 0 && System.nanoTime() - lastHandoff > HANDOFF_NANOS) {
+            handoff();
+        }
+    }
+
+    // Gives current to the writer (if it has anything) and takes a free buffer, or null if none is left
+    private void handoff() {
+        if (current != null && current.position() > 0) {
+            current.flip();
+            full.add(current);
+            current = null;
+            LockSupport.unpark(writer);
+        }
+        if (current == null) current = free.poll();
+        lastHandoff = System.nanoTime();
+    }
+
+    private void drain() {
+        while (true) {
+            ByteBuffer b = full.poll();
+            if (b == null) {
+                // close() queues its last buffer before clearing open, so one more look catches it
+                if (!open) {
+                    if (full.isEmpty()) return;
+                    continue;
+                }
+                LockSupport.parkNanos(this, HANDOFF_NANOS);
+                continue;
+            }
+            try {
+                if (failure == null) {
+                    while (b.hasRemaining()) channel.write(b);
+                }
+            } catch (IOException ex) {
+                failure = ex; // keep recycling buffers so the tick carries on; close() reports it
+            }
+            b.clear();
+            free.add(b);
+        }
+    }
+
+    long getRecorded() {
+        return recorded.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    /** Flushes everything recorded so far. Call after the recording thread has stopped. */
+    @Override
+    public void close() throws IOException {
+        if (!open) return;
+        if (current != null && current.position() > 0) handoff();
+        open = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+}
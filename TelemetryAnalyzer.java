@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * TelemetryAnalyzer.java
+ * Summarizes Telemetry logs: rally lengths, hit offsets, ball speeds,
+ * power-ups and AI personality switches.
+ *
+ * Every file is split into CHUNK_BYTES regions which are memory-mapped and
+ * scanned in parallel, one task per region, each into its own Stats; the
+ * results are merged at the end. Records are read in place with absolute
+ * gets, so nothing is copied or allocated per record.
+ *
+ * Usage: java TelemetryAnalyzer <file.tlm|dir>... [--threads n]
+ */
+public class TelemetryAnalyzer {
+    static final long CHUNK_BYTES = 64L * 1024 * 1024; // a multiple of RECORD_SIZE
+    static final int RALLY_BUCKETS = 21;                // 0..19 hits, then 20+
+    static final int OFFSET_BUCKETS = 10;               // normalized -1..1 in steps of 0.2
+    static final String[] PERSONALITIES = { "NORMAL", "AGGRESSIVE", "DEFENSIVE", "custom" };
+    static final String[] SIDES = { "player", "AI" };
+
+    static class Stats {
+        final long[] types = new long[6]; // index 0 counts unknown types
+        long records;
+
+        long rallies;
+        long rallyHits;
+        long rallyMillis;
+        int longestRally;
+        final long[] rallyLengths = new long[RALLY_BUCKETS];
+        final long[] points = new long[2];
+
+        final long[] hits = new long[2];
+        final double[] absOffset = new double[2];
+        final long[][] offsets = new long[2][OFFSET_BUCKETS];
+        double speedTotal;
+        float fastest;
+
+        final long[] spawns = new long[EnhancedPongGame.PowerType.values().length];
+        final long[][] pickups = new long[2][spawns.length];
+
+        final long[][] switches = new long[PERSONALITIES.length][PERSONALITIES.length];
+
+        void add(ByteBuffer b, int at) {
+            records++;
+            int type = b.get(at);
+            int side = b.get(at + 1) & 0xFF;
+            int code = b.getShort(at + 2) & 0xFFFF;
+            float a = b.getFloat(at + 16);
+            float bf = b.getFloat(at + 20);
+            switch (type) {
+                case Telemetry.HIT:
+                    if (side > 1) break;
+                    hits[side]++;
+                    absOffset[side] += Math.abs(a);
+                    int bucket = (int) ((Math.max(-1f, Math.min(1f, a)) + 1f) * OFFSET_BUCKETS / 2);
+                    offsets[side][Math.min(OFFSET_BUCKETS - 1, bucket)]++;
+                    speedTotal += bf;
+                    fastest = Math.max(fastest, bf);
+                    break;
+                case Telemetry.RALLY:
+                    rallies++;
+                    rallyHits += code;
+                    rallyMillis += (long) a;
+                    longestRally = Math.max(longestRally, code);
+                    rallyLengths[Math.min(RALLY_BUCKETS - 1, code)]++;
+                    if (side <= 1) points[side]++;
+                    break;
+                case Telemetry.POWER_SPAWN:
+                    if (code < spawns.length) spawns[code]++;
+                    break;
+                case Telemetry.POWER_PICKUP:
+                    if (side <= 1 && code < spawns.length) pickups[side][code]++;
+                    break;
+                case Telemetry.AI_SWITCH:
+                    int from = b.getInt(at + 28);
+                    if (code < PERSONALITIES.length && from >= 0 && from < PERSONALITIES.length) switches[from][code]++;
+                    break;
+                default:
+                    type = 0;
+            }
+            types[type]++;
+        }
+
+        void merge(Stats o) {
+            records += o.records;
+            rallies += o.rallies;
+            rallyHits += o.rallyHits;
+            rallyMillis += o.rallyMillis;
+            longestRally = Math.max(longestRally, o.longestRally);
+            speedTotal += o.speedTotal;
+            fastest = Math.max(fastest, o.fastest);
+            add(types, o.types);
+            add(rallyLengths, o.rallyLengths);
+            add(points, o.points);
+            add(hits, o.hits);
+            add(spawns, o.spawns);
+            for (int s = 0; s < 2; s++) {
+                absOffset[s] += o.absOffset[s];
+                add(offsets[s], o.offsets[s]);
+                add(pickups[s], o.pickups[s]);
+            }
+            for (int p = 0; p < switches.length; p++) {
+                add(switches[p], o.switches[p]);
+            }
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+
+        void print() {
+            System.out.printf("records: %d  (hits %d, rallies %d, spawns %d, pickups %d, AI switches %d, unknown %d)%n",
+                    records, types[Telemetry.HIT], types[Telemetry.RALLY], types[Telemetry.POWER_SPAWN],
+                    types[Telemetry.POWER_PICKUP], types[Telemetry.AI_SWITCH], types[0]);
+
+            System.out.printf("%nrallies: %d  avg %.2f hits, %.1f s  longest %d hits  points player %d / AI %d%n",
+                    rallies, rallies == 0 ? 0 : rallyHits / (double) rallies,
+                    rallies == 0 ? 0 : rallyMillis / 1000.0 / rallies, longestRally, points[0], points[1]);
+            System.out.print("  hits per rally:");
+            for (int i = 0; i < RALLY_BUCKETS; i++) {
+                if (rallyLengths[i] > 0) System.out.printf(" %s%s=%d", i, i == RALLY_BUCKETS - 1 ? "+" : "", rallyLengths[i]);
+            }
+            System.out.println();
+
+            long allHits = hits[0] + hits[1];
+            System.out.printf("%npaddle hits: %d  ball speed after hit avg %.2f, max %.2f%n",
+                    allHits, allHits == 0 ? 0 : speedTotal / allHits, fastest);
+            for (int s = 0; s < 2; s++) {
+                System.out.printf("  %-6s %8d hits, mean |offset| %.3f, offsets -1..1:", SIDES[s], hits[s],
+                        hits[s] == 0 ? 0 : absOffset[s] / hits[s]);
+                for (long n : offsets[s]) System.out.printf(" %d", n);
+                System.out.println();
+            }
+
+            System.out.printf("%npower-ups:%n");
+            EnhancedPongGame.PowerType[] types = EnhancedPongGame.PowerType.values();
+            for (int t = 0; t < types.length; t++) {
+                System.out.printf("  %-12s spawned %6d  taken by player %6d, AI %6d%n",
+                        types[t], spawns[t], pickups[0][t], pickups[1][t]);
+            }
+
+            System.out.printf("%nAI personality switches:%n");
+            for (int from = 0; from < PERSONALITIES.length; from++) {
+                for (int to = 0; to < PERSONALITIES.length; to++) {
+                    if (switches[from][to] > 0) {
+                        System.out.printf("  %-10s -> %-10s %d%n", PERSONALITIES[from], PERSONALITIES[to], switches[from][to]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Scans one mapped region of a log. */
+    static Stats scan(Path file, long offset, long length) throws IOException {
+        Stats stats = new Stats();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            int end = (int) length;
+            for (int at = 0; at < end; at += Telemetry.RECORD_SIZE) {
+                stats.add(b, at);
+            }
+        }
+        return stats;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+                continue;
+            }
+            Path p = Paths.get(args[i]);
+            if (Files.isDirectory(p)) {
+                try (DirectoryStream<Path> dir = Files.newDirectoryStream(p, "*.tlm")) {
+                    for (Path f : dir) files.add(f);
+                }
+            } else {
+                files.add(p);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: java TelemetryAnalyzer <file.tlm|dir>... [--threads n]");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        long bytes = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Stats>> parts = new ArrayList<>();
+        for (final Path file : files) {
+            long size = Files.size(file);
+            if (!hasHeader(file, size)) {
+                System.err.println("Skipping " + file + ": not a telemetry log");
+                continue;
+            }
+            long records = (size - Telemetry.HEADER_SIZE) / Telemetry.RECORD_SIZE;
+            if ((size - Telemetry.HEADER_SIZE) % Telemetry.RECORD_SIZE != 0) {
+                System.err.println(file + ": ignoring a truncated last record");
+            }
+            long end = Telemetry.HEADER_SIZE + records * Telemetry.RECORD_SIZE;
+            for (long at = Telemetry.HEADER_SIZE; at < end; at += CHUNK_BYTES) {
+                final long offset = at;
+                final long length = Math.min(CHUNK_BYTES, end - at);
+                parts.add(pool.submit(() -> scan(file, offset, length)));
+            }
+            bytes += size;
+        }
+
+        Stats total = new Stats();
+        for (Future<Stats> part : parts) {
+            total.merge(part.get());
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d files, %.1f MB in %.2f s (%.0f MB/s, %d threads)%n%n",
+                files.size(), bytes / 1e6, seconds, bytes / 1e6 / seconds, threads);
+        total.print();
+    }
+
+    private static boolean hasHeader(Path file, long size) throws IOException {
+        if (size < Telemetry.HEADER_SIZE) return false;
+        ByteBuffer header = ByteBuffer.allocate(Telemetry.HEADER_SIZE);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // fill
+            }
+        }
+        byte[] magic = new byte[Telemetry.MAGIC.length];
+        header.flip();
+        header.get(magic);
+        return Arrays.equals(magic, Telemetry.MAGIC)
+                && header.getInt() == Telemetry.RECORD_SIZE
+                && header.getInt() == Telemetry.VERSION;
+    }
+}
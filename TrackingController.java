@@ -0,0 +1,44 @@
+/**
+ * TrackingController.java
+ * The built-in AI personalities: follow the ball with limited reaction and
+ * speed, aiming at a personality-specific point on the paddle.
+ *
+ *  - NORMAL     : centre the paddle on the ball
+ *  - AGGRESSIVE : lead the ball to hit it with the paddle edge
+ *  - DEFENSIVE  : lag behind the ball to keep it on the paddle centre
+ */
+public abstract class TrackingController implements PaddleController {
+
+    /** Vertical offset added to the ball-centred target. */
+    abstract double targetOffset(PaddleView v);
+
+    @Override
+    public int decide(PaddleView v) {
+        double targetY = v.ballY + v.ballSize/2 - v.paddleHeight/2;
+        targetY += targetOffset(v);
+
+        int y = v.paddleY;
+        double dy = targetY - y;
+        y += (int)Math.round(dy * v.reaction);
+
+        // Clamp movement speed
+        if (y - (int)Math.round(targetY) > v.maxSpeed) y -= v.maxSpeed;
+        if ((int)Math.round(targetY) - y > v.maxSpeed) y += v.maxSpeed;
+        return y;
+    }
+
+    public static final class Normal extends TrackingController {
+        @Override public String name() { return "NORMAL"; }
+        @Override double targetOffset(PaddleView v) { return 0; }
+    }
+
+    public static final class Aggressive extends TrackingController {
+        @Override public String name() { return "AGGRESSIVE"; }
+        @Override double targetOffset(PaddleView v) { return v.ballVY > 0 ? 20 : -20; }
+    }
+
+    public static final class Defensive extends TrackingController {
+        @Override public String name() { return "DEFENSIVE"; }
+        @Override double targetOffset(PaddleView v) { return v.ballVY > 0 ? -10 : 10; }
+    }
+}
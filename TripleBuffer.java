@@ -0,0 +1,56 @@
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * TripleBuffer.java
+ * Hands the newest of a stream of reusable objects from one producer thread
+ * to one consumer thread without locks.
+ *
+ * There are three slots: the producer fills back(), the consumer reads
+ * front(), and the middle slot, swapped in and out with one atomic exchange
+ * per side, holds the newest finished one. Each slot belongs to exactly one
+ * side at a time, so a slot is never written while it is being read and
+ * neither side ever waits. A consumer slower than the producer just skips
+ * the frames it missed.
+ */
+final class TripleBuffer<T> {
+    private static final class Slot<T> {
+        final T value;
+        boolean fresh = false; // published and not yet taken by the consumer
+
+        Slot(T value) {
+            this.value = value;
+        }
+    }
+
+    private Slot<T> back;  // producer only
+    private Slot<T> front; // consumer only
+    private final AtomicReference<Slot<T>> middle;
+
+    TripleBuffer(Supplier<T> factory) {
+        back = new Slot<>(factory.get());
+        front = new Slot<>(factory.get());
+        middle = new AtomicReference<>(new Slot<>(factory.get()));
+    }
+
+    /** Producer: the object to fill next. */
+    T back() {
+        return back.value;
+    }
+
+    /** Producer: hands the filled back() to the consumer and takes a free slot in its place. */
+    void publish() {
+        back.fresh = true;
+        back = middle.getAndSet(back);
+    }
+
+    /** Consumer: the newest published object, or the previous one again if nothing new arrived. */
+    T front() {
+        // Only the producer puts fresh slots in the middle, so after seeing one the exchange gets a fresh slot
+        if (middle.get().fresh) {
+            front.fresh = false;
+            front = middle.getAndSet(front);
+        }
+        return front.value;
+    }
+}